@@ -0,0 +1,139 @@
+package edu.grinnell.csc207.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.grinnell.csc207.util.BitTree;
+
+/**
+ * Batch lookups with getAll against a loop over get. The trees are large
+ * enough that most steps of a lookup miss the cache, which is where
+ * advancing many lookups together pays off.
+ *
+ * @author Nicole Moreno Gonzalez
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchLookupBenchmark {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The number of lookups per benchmark invocation.
+   */
+  static final int LOOKUPS = 1024;
+
+  /**
+   * The most entries we put in a tree.
+   */
+  static final int MAX_ENTRIES = 1 << 20;
+
+  // +------------+--------------------------------------------------
+  // | Parameters |
+  // +------------+
+
+  /**
+   * The length of keys.
+   */
+  @Param({"16", "24", "32"})
+  int bitLength;
+
+  /**
+   * The number of bits per level.
+   */
+  @Param({"1", "4"})
+  int stride;
+
+  // +-------+-------------------------------------------------------
+  // | State |
+  // +-------+
+
+  /**
+   * The tree being measured.
+   */
+  BitTree<Integer> tree;
+
+  /**
+   * Keys that are in the tree, in random order.
+   */
+  int[] keys;
+
+  /**
+   * Where getAll puts its results.
+   */
+  Integer[] values;
+
+  // +-------+-------------------------------------------------------
+  // | Setup |
+  // +-------+
+
+  /**
+   * Fill a tree with keys spread across the whole key space, and pick
+   * some of them to look up.
+   */
+  @Setup
+  public void setup() {
+    Random random = new Random(207);
+    long space = 1L << this.bitLength;
+    int entries = (int) Math.min(MAX_ENTRIES, space);
+    int[] stored = new int[entries];
+    this.tree = new BitTree<>(this.bitLength, this.stride);
+    for (int i = 0; i < entries; i++) {
+      stored[i] = (int) (i * (space / entries));
+      this.tree.set(stored[i], i);
+    } // for
+    this.keys = new int[LOOKUPS];
+    for (int i = 0; i < LOOKUPS; i++) {
+      this.keys[i] = stored[random.nextInt(entries)];
+    } // for
+    this.values = new Integer[LOOKUPS];
+  } // setup()
+
+  // +------------+--------------------------------------------------
+  // | Benchmarks |
+  // +------------+
+
+  /**
+   * Look up each key in turn.
+   *
+   * @param bh
+   *   Consumes the results.
+   */
+  @Benchmark
+  public void loopGet(Blackhole bh) {
+    for (int i = 0; i < LOOKUPS; i++) {
+      this.values[i] = this.tree.get(this.keys[i]);
+    } // for
+    bh.consume(this.values);
+  } // loopGet(Blackhole)
+
+  /**
+   * Look up all the keys together.
+   *
+   * @param bh
+   *   Consumes the results.
+   */
+  @Benchmark
+  public void getAll(Blackhole bh) {
+    this.tree.getAll(this.keys, this.values);
+    bh.consume(this.values);
+  } // getAll(Blackhole)
+} // class BatchLookupBenchmark
@@ -0,0 +1,210 @@
+package edu.grinnell.csc207.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.grinnell.csc207.util.BitTree;
+
+/**
+ * Benchmarks of the basic BitTree operations at a range of bit lengths
+ * and fill densities.
+ *
+ * @author Nicole Moreno Gonzalez
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BitTreeBenchmark {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The most entries we put in a tree, however sparse.
+   */
+  static final int MAX_ENTRIES = 1 << 16;
+
+  /**
+   * The number of lookups per benchmark invocation.
+   */
+  static final int LOOKUPS = 1024;
+
+  // +------------+--------------------------------------------------
+  // | Parameters |
+  // +------------+
+
+  /**
+   * The length of keys.
+   */
+  @Param({"6", "8", "16", "24"})
+  int bitLength;
+
+  /**
+   * The fraction of possible keys that have values.
+   */
+  @Param({"0.1", "1.0"})
+  double fill;
+
+  // +-------+-------------------------------------------------------
+  // | State |
+  // +-------+
+
+  /**
+   * The tree being measured.
+   */
+  BitTree<String> tree;
+
+  /**
+   * Keys that are in the tree, in random order.
+   */
+  int[] keys;
+
+  /**
+   * The same keys as bit strings.
+   */
+  String[] bits;
+
+  /**
+   * The tree's contents as CSV.
+   */
+  byte[] csv;
+
+  /**
+   * A writer that discards what it is given.
+   */
+  PrintWriter sink;
+
+  // +-------+-------------------------------------------------------
+  // | Setup |
+  // +-------+
+
+  /**
+   * Build a tree of the right size and pick the keys to look up.
+   */
+  @Setup
+  public void setup() {
+    Random random = new Random(207);
+    long space = 1L << this.bitLength;
+    int entries = (int) Math.max(1, Math.min(MAX_ENTRIES, space * this.fill));
+    this.tree = new BitTree<>(this.bitLength);
+    int[] stored = new int[entries];
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < entries; i++) {
+      stored[i] = (entries == space) ? i : random.nextInt((int) space);
+      String key = toBits(stored[i]);
+      this.tree.set(key, "v" + i);
+      text.append(key).append(",v").append(i).append('\n');
+    } // for
+    this.csv = text.toString().getBytes(StandardCharsets.UTF_8);
+    this.keys = new int[LOOKUPS];
+    this.bits = new String[LOOKUPS];
+    for (int i = 0; i < LOOKUPS; i++) {
+      this.keys[i] = stored[random.nextInt(entries)];
+      this.bits[i] = toBits(this.keys[i]);
+    } // for
+    this.sink = new PrintWriter(Writer.nullWriter());
+  } // setup()
+
+  /**
+   * Convert a key to a bit string of the right length.
+   *
+   * @param key
+   *   The key.
+   *
+   * @return the bits.
+   */
+  String toBits(int key) {
+    String digits = Integer.toBinaryString(key);
+    return "0".repeat(this.bitLength - digits.length()) + digits;
+  } // toBits(int)
+
+  // +------------+--------------------------------------------------
+  // | Benchmarks |
+  // +------------+
+
+  /**
+   * Look up by int key.
+   *
+   * @param bh
+   *   Consumes the results.
+   */
+  @Benchmark
+  public void getInt(Blackhole bh) {
+    for (int key : this.keys) {
+      bh.consume(this.tree.get(key));
+    } // for
+  } // getInt(Blackhole)
+
+  /**
+   * Look up by bit string.
+   *
+   * @param bh
+   *   Consumes the results.
+   */
+  @Benchmark
+  public void getString(Blackhole bh) {
+    for (String key : this.bits) {
+      bh.consume(this.tree.get(key));
+    } // for
+  } // getString(Blackhole)
+
+  /**
+   * Overwrite existing values by int key.
+   */
+  @Benchmark
+  public void setInt() {
+    for (int key : this.keys) {
+      this.tree.set(key, "new");
+    } // for
+  } // setInt()
+
+  /**
+   * Overwrite existing values by bit string.
+   */
+  @Benchmark
+  public void setString() {
+    for (String key : this.bits) {
+      this.tree.set(key, "new");
+    } // for
+  } // setString()
+
+  /**
+   * Load a fresh tree from CSV.
+   *
+   * @return the tree, so that the work is not discarded.
+   */
+  @Benchmark
+  public BitTree<String> load() {
+    BitTree<String> fresh = new BitTree<>(this.bitLength);
+    fresh.load(new ByteArrayInputStream(this.csv));
+    return fresh;
+  } // load()
+
+  /**
+   * Dump the tree to a writer that discards it.
+   */
+  @Benchmark
+  public void dump() {
+    this.tree.dump(this.sink);
+  } // dump()
+} // class BitTreeBenchmark
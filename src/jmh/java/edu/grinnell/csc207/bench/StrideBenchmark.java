@@ -0,0 +1,116 @@
+package edu.grinnell.csc207.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.grinnell.csc207.util.BitTree;
+
+/**
+ * Lookups in BitTrees with different strides. A tree with bit length n
+ * and stride s takes ceil(n / s) steps per lookup, so comparing strides
+ * at a fixed bit length shows what each level of depth costs.
+ *
+ * @author Nicole Moreno Gonzalez
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StrideBenchmark {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The number of lookups per benchmark invocation.
+   */
+  static final int LOOKUPS = 1024;
+
+  /**
+   * The most entries we put in a tree.
+   */
+  static final int MAX_ENTRIES = 1 << 16;
+
+  // +------------+--------------------------------------------------
+  // | Parameters |
+  // +------------+
+
+  /**
+   * The length of keys.
+   */
+  @Param({"6", "8", "16"})
+  int bitLength;
+
+  /**
+   * The number of bits per level.
+   */
+  @Param({"1", "2", "4", "8"})
+  int stride;
+
+  // +-------+-------------------------------------------------------
+  // | State |
+  // +-------+
+
+  /**
+   * The tree being measured.
+   */
+  BitTree<Integer> tree;
+
+  /**
+   * Keys that are in the tree, in random order.
+   */
+  int[] keys;
+
+  // +-------+-------------------------------------------------------
+  // | Setup |
+  // +-------+
+
+  /**
+   * Fill a tree with as many keys as will fit (up to a limit).
+   */
+  @Setup
+  public void setup() {
+    Random random = new Random(207);
+    int entries = Math.min(MAX_ENTRIES, 1 << this.bitLength);
+    this.tree = new BitTree<>(this.bitLength, this.stride);
+    for (int i = 0; i < entries; i++) {
+      this.tree.set(i, i);
+    } // for
+    this.keys = new int[LOOKUPS];
+    for (int i = 0; i < LOOKUPS; i++) {
+      this.keys[i] = random.nextInt(entries);
+    } // for
+  } // setup()
+
+  // +------------+--------------------------------------------------
+  // | Benchmarks |
+  // +------------+
+
+  /**
+   * Look up by int key.
+   *
+   * @param bh
+   *   Consumes the results.
+   */
+  @Benchmark
+  public void get(Blackhole bh) {
+    for (int key : this.keys) {
+      bh.consume(this.tree.get(key));
+    } // for
+  } // get(Blackhole)
+} // class StrideBenchmark
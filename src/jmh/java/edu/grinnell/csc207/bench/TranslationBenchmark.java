@@ -0,0 +1,171 @@
+package edu.grinnell.csc207.bench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.grinnell.csc207.util.BrailleAsciiTables;
+
+/**
+ * Benchmarks of BrailleAsciiTables on ordinary English text, both a
+ * character at a time and in bulk.
+ *
+ * @author Nicole Moreno Gonzalez
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TranslationBenchmark {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * Some text to translate (letters and spaces only, as in the tables).
+   */
+  static final String TEXT =
+      "It was the best of times it was the worst of times it was the age of "
+      + "wisdom it was the age of foolishness it was the epoch of belief it was "
+      + "the epoch of incredulity it was the season of Light it was the season "
+      + "of Darkness it was the spring of hope it was the winter of despair ";
+
+  // +-------+-------------------------------------------------------
+  // | State |
+  // +-------+
+
+  /**
+   * The text as Braille bits.
+   */
+  String braille;
+
+  /**
+   * The text as six-bit chunks.
+   */
+  String[] chunks;
+
+  /**
+   * Where the bulk translations go.
+   */
+  StringBuilder out;
+
+  // +-------+-------------------------------------------------------
+  // | Setup |
+  // +-------+
+
+  /**
+   * Translate the text once to get the inputs for the other directions.
+   *
+   * @throws IOException
+   *   Never, since we append to a StringBuilder.
+   */
+  @Setup
+  public void setup() throws IOException {
+    StringBuilder bits = new StringBuilder();
+    BrailleAsciiTables.translateToBraille(TEXT, bits);
+    this.braille = bits.toString();
+    this.chunks = new String[TEXT.length()];
+    for (int i = 0; i < this.chunks.length; i++) {
+      this.chunks[i] = this.braille.substring(6 * i, 6 * i + 6);
+    } // for
+    this.out = new StringBuilder(this.braille.length());
+  } // setup()
+
+  // +------------+--------------------------------------------------
+  // | Benchmarks |
+  // +------------+
+
+  /**
+   * ASCII to Braille, a character at a time.
+   *
+   * @param bh
+   *   Consumes the results.
+   */
+  @Benchmark
+  public void toBraille(Blackhole bh) {
+    for (int i = 0; i < TEXT.length(); i++) {
+      bh.consume(BrailleAsciiTables.toBraille(TEXT.charAt(i)));
+    } // for
+  } // toBraille(Blackhole)
+
+  /**
+   * Braille to ASCII, a character at a time.
+   *
+   * @param bh
+   *   Consumes the results.
+   */
+  @Benchmark
+  public void toAscii(Blackhole bh) {
+    for (String chunk : this.chunks) {
+      bh.consume(BrailleAsciiTables.toAscii(chunk));
+    } // for
+  } // toAscii(Blackhole)
+
+  /**
+   * Braille to Unicode, a character at a time.
+   *
+   * @param bh
+   *   Consumes the results.
+   */
+  @Benchmark
+  public void toUnicode(Blackhole bh) {
+    for (String chunk : this.chunks) {
+      bh.consume(BrailleAsciiTables.toUnicode(chunk));
+    } // for
+  } // toUnicode(Blackhole)
+
+  /**
+   * ASCII to Braille, in bulk.
+   *
+   * @return the translation.
+   * @throws IOException
+   *   Never, since we append to a StringBuilder.
+   */
+  @Benchmark
+  public StringBuilder translateToBraille() throws IOException {
+    this.out.setLength(0);
+    BrailleAsciiTables.translateToBraille(TEXT, this.out);
+    return this.out;
+  } // translateToBraille()
+
+  /**
+   * Braille to ASCII, in bulk.
+   *
+   * @return the translation.
+   * @throws IOException
+   *   Never, since we append to a StringBuilder.
+   */
+  @Benchmark
+  public StringBuilder translateToAscii() throws IOException {
+    this.out.setLength(0);
+    BrailleAsciiTables.translateToAscii(this.braille, this.out);
+    return this.out;
+  } // translateToAscii()
+
+  /**
+   * Braille to Unicode, in bulk.
+   *
+   * @return the translation.
+   * @throws IOException
+   *   Never, since we append to a StringBuilder.
+   */
+  @Benchmark
+  public StringBuilder translateToUnicode() throws IOException {
+    this.out.setLength(0);
+    BrailleAsciiTables.translateToUnicode(this.braille, this.out);
+    return this.out;
+  } // translateToUnicode()
+} // class TranslationBenchmark
@@ -44,7 +44,7 @@ public class BitTreeExperiments {
    * @param bits
    *   The key.
    */
-  static void get(PrintWriter pen, BitTree bt, String bits) {
+  static void get(PrintWriter pen, BitTree<String> bt, String bits) {
     pen.printf("get(\"%s\")", bits);
     pen.flush();
     try {
@@ -67,7 +67,7 @@ public class BitTreeExperiments {
    * @param value
    *   The value.
    */
-  static void set(PrintWriter pen, BitTree bt, String bits, String value) {
+  static void set(PrintWriter pen, BitTree<String> bt, String bits, String value) {
     pen.printf("set(\"%s\", \"%s\") ... ", bits, value);
     pen.flush();
     try {
@@ -103,7 +103,7 @@ public class BitTreeExperiments {
     pen.println("Experiment 01");
     pen.println("-------------");
 
-    BitTree bt = new BitTree(5);
+    BitTree<String> bt = new BitTree<>(5);
     set(pen, bt, "00000", "Zero");
     set(pen, bt, "10000", "Sixteen");
     set(pen, bt, "01111", "Fifteen");
@@ -140,7 +140,7 @@ public class BitTreeExperiments {
   static void experiment02(PrintWriter pen) {
     pen.println("Experiment 02");
     pen.println("-------------");
-    BitTree b2aTree = new BitTree(6);
+    BitTree<String> b2aTree = new BitTree<>(6);
     InputStream b2aStream = new ByteArrayInputStream(B2A.getBytes());
     b2aTree.load(b2aStream);
     try {
@@ -1,6 +1,13 @@
 package edu.grinnell.csc207.main;
 
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.PrintWriter;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.function.ObjIntConsumer;
 
 import edu.grinnell.csc207.util.BrailleAsciiTables;
 
@@ -11,10 +18,184 @@ import edu.grinnell.csc207.util.BrailleAsciiTables;
  * 1. The target character set (braille, ascii, or unicode).
  * 2. The source characters to translate.
  *
+ * Alternately, <code>--stream target [file]</code> translates the named
+ * file (or standard input) a chunk at a time, passing line breaks
+ * through unchanged.
+ *
+ * <code>--serve address</code> keeps the tables loaded and answers
+ * translation requests; <code>--connect address target [source]</code>
+ * sends it the source (or each line of standard input). The address is
+ * a loopback TCP port or the path of a Unix-domain socket.
+ *
  * @author Nicole Moreno Gonzalez
  */
 public class BrailleASCII {
 
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The number of bits in a Braille character.
+   */
+  private static final int BRAILLE_BITS = 6;
+
+  /**
+   * The number of characters read at a time in streaming mode.
+   */
+  private static final int CHUNK_SIZE = 8192;
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Determines whether a character ends a line.
+   *
+   * @param c the character.
+   * @return true if c is a carriage return or newline.
+   */
+  private static boolean isLineBreak(char c) {
+    return c == '\n' || c == '\r';
+  } // isLineBreak(char)
+
+  /**
+   * Describes a chunk of input that could not be translated.
+   *
+   * @param target the target character set.
+   * @param chunk the chunk: a character for the braille and unicode
+   *   targets, bits for the ascii target.
+   * @return a one-line description.
+   */
+  static String problem(String target, String chunk) {
+    if (!target.equals("ascii")) {
+      return "Trouble translating character '" + chunk + "'";
+    } else if (chunk.length() < BRAILLE_BITS) {
+      return "Invalid bits: '" + chunk + "' (length: " + chunk.length() + ")";
+    } // if
+    return "Trouble translating chunk '" + chunk + "'";
+  } // problem(String, String)
+
+  /**
+   * Translates whole characters or chunks from the front of a buffer,
+   * skipping any that cannot be translated.
+   *
+   * @param target the target character set.
+   * @param in the source; translated text is consumed.
+   * @param out where to put the translation.
+   * @param bits scratch space for the unicode target.
+   * @param invalid given each chunk skipped, and its position.
+   */
+  private static void translate(String target, CharBuffer in, CharBuffer out, CharBuffer bits,
+      ObjIntConsumer<String> invalid) {
+    switch (target) {
+      case "braille" -> BrailleAsciiTables.translateToBraille(in, out, invalid);
+      case "ascii" -> BrailleAsciiTables.translateToAscii(in, out, invalid);
+      default -> {
+        bits.clear();
+        BrailleAsciiTables.translateToBraille(in, bits, invalid);
+        bits.flip();
+        BrailleAsciiTables.translateToUnicode(bits, out);
+      } // default
+    } // switch
+  } // translate(String, CharBuffer, CharBuffer, CharBuffer, ObjIntConsumer)
+
+  /**
+   * Writes out and empties a buffer of translated text.
+   *
+   * @param out the buffer.
+   * @param pen where to write it.
+   */
+  private static void drain(CharBuffer out, PrintWriter pen) {
+    pen.write(out.array(), 0, out.position());
+    out.clear();
+  } // drain(CharBuffer, PrintWriter)
+
+  /**
+   * Translates a stream a chunk at a time. Braille chunks that straddle
+   * two reads are carried over to the next one, so memory use does not
+   * depend on the size of the input. Chunks that cannot be translated
+   * are reported after the text around them and skipped.
+   *
+   * @param target the target character set.
+   * @param source where to read the text.
+   * @param pen where to write the translation.
+   * @throws IOException if the source cannot be read.
+   */
+  static void stream(String target, Reader source, PrintWriter pen) throws IOException {
+    CharBuffer in = CharBuffer.allocate(CHUNK_SIZE);
+    CharBuffer bits = CharBuffer.allocate(CHUNK_SIZE * BRAILLE_BITS);
+    CharBuffer out = CharBuffer.allocate(CHUNK_SIZE * BRAILLE_BITS);
+    StringBuilder problems = new StringBuilder();
+    ObjIntConsumer<String> invalid =
+        (chunk, position) -> problems.append(problem(target, chunk)).append(System.lineSeparator());
+    boolean done = false;
+    while (!done) {
+      done = source.read(in) < 0;
+      in.flip();
+      while (in.hasRemaining()) {
+        int limit = in.limit();
+        int end = in.position();
+        while (end < limit && !isLineBreak(in.get(end))) {
+          end++;
+        } // while
+        in.limit(end);
+        translate(target, in, out, bits, invalid);
+        drain(out, pen);
+        if (problems.length() > 0) {
+          pen.println();
+          pen.print(problems);
+          problems.setLength(0);
+        } // if
+        if (end == limit && !done) {
+          // Keep any partial chunk for the next read.
+          in.limit(limit);
+          break;
+        } // if
+        if (in.hasRemaining()) {
+          pen.println();
+          pen.println(problem(target, in.toString()));
+          in.position(end);
+        } // if
+        in.limit(limit);
+        if (in.hasRemaining()) {
+          pen.write(in.get());
+        } // if
+      } // while
+      in.compact();
+    } // while
+    pen.flush();
+  } // stream(String, Reader, PrintWriter)
+
+  /**
+   * Asks a server for translations: of the source, if there is one, and
+   * otherwise of each line of standard input, all over one connection.
+   *
+   * @param address the server's port or socket path.
+   * @param target the target character set.
+   * @param source the source characters, or null to read standard input.
+   * @param pen where to write the translations.
+   * @throws IOException if the server or standard input cannot be read.
+   */
+  private static void connect(String address, String target, String source, PrintWriter pen)
+      throws IOException {
+    try (BrailleClient client = new BrailleClient(BrailleServer.address(address))) {
+      if (source != null) {
+        pen.println(client.translate(target, source));
+        return;
+      } // if
+      BufferedReader lines = new BufferedReader(new InputStreamReader(System.in));
+      String line;
+      while ((line = lines.readLine()) != null) {
+        try {
+          pen.println(client.translate(target, line));
+        } catch (IllegalArgumentException e) {
+          pen.println(e.getMessage());
+        } // try/catch
+      } // while
+    } // try
+  } // connect(String, String, String, PrintWriter)
+
   // +------+--------------------------------------------------------
   // | Main |
   // +------+
@@ -29,8 +210,69 @@ public class BrailleASCII {
   public static void main(String[] args) {
     PrintWriter pen = new PrintWriter(System.out, true);
 
+    if (args.length >= 2 && args.length <= 3 && args[0].equals("--stream")) {
+      String target = args[1].toLowerCase();
+      if (!target.equals("braille") && !target.equals("ascii") && !target.equals("unicode")) {
+        pen.println("Unsupported target: " + target);
+      } else {
+        try (Reader source = (args.length == 3)
+            ? new FileReader(args[2]) : new InputStreamReader(System.in)) {
+          stream(target, source, pen);
+        } catch (RuntimeException | IOException e) {
+          pen.println();
+          pen.println("Trouble translating because " + e.getMessage());
+        } // try/catch
+      } // if/else
+      pen.close();
+      return;
+    } // if
+
+    if (args.length == 2 && args[0].equals("--serve")) {
+      BrailleServer server = null;
+      try {
+        BrailleServer started = new BrailleServer(BrailleServer.address(args[1]));
+        server = started;
+        // Ctrl-C and kill skip the finally, but not shutdown hooks.
+        // Closing is idempotent, so both may run.
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+          try {
+            started.close();
+          } catch (IOException e) {
+            // Exiting anyway.
+          } // try/catch
+        }));
+        pen.println("Listening on " + server.localAddress());
+        server.serve();
+      } catch (RuntimeException | IOException e) {
+        pen.println("Trouble serving because " + e.getMessage());
+      } finally {
+        if (server != null) {
+          try {
+            server.close();
+          } catch (IOException e) {
+            pen.println("Trouble stopping because " + e.getMessage());
+          } // try/catch
+        } // if
+      } // try/catch/finally
+      pen.close();
+      return;
+    } // if
+
+    if (args.length >= 3 && args.length <= 4 && args[0].equals("--connect")) {
+      try {
+        connect(args[1], args[2].toLowerCase(), (args.length == 4) ? args[3] : null, pen);
+      } catch (RuntimeException | IOException e) {
+        pen.println("Trouble translating because " + e.getMessage());
+      } // try/catch
+      pen.close();
+      return;
+    } // if
+
     if (args.length != 2) {
       pen.println("Usage: ba <target> <source>");
+      pen.println("       ba --stream <target> [file]");
+      pen.println("       ba --serve <port|socket>");
+      pen.println("       ba --connect <port|socket> <target> [source]");
       pen.close();
       return;
     } // if
@@ -42,49 +284,39 @@ public class BrailleASCII {
       switch (target) {
         case "braille":
           StringBuilder brailleResult = new StringBuilder();
-          for (char c : source.toCharArray()) {
-            brailleResult.append(BrailleAsciiTables.toBraille(c));
-          } // for
+          StringBuilder brailleProblems = new StringBuilder();
+          BrailleAsciiTables.translateToBraille(source, brailleResult, (chunk, index) ->
+              brailleProblems.append(problem(target, chunk)).append(System.lineSeparator()));
+          pen.print(brailleProblems);
           pen.println(brailleResult.toString());
           break;
 
         case "ascii":
           StringBuilder asciiResult = new StringBuilder();
-          boolean foundError = false;
-          for (int i = 0; i + 6 <= source.length(); i += 6) {
-            String bits = source.substring(i, i + 6);
-            try {
-              asciiResult.append(BrailleAsciiTables.toAscii(bits));
-            } catch (RuntimeException e) {
-              foundError = true;
-              pen.println("Trouble translating chunk '" + bits + "' because " + e.getMessage());
-            } // try/catch
-          } // for
-
-          int leftover = source.length() % 6;
-          if (leftover != 0) {
-            String remainingBits = source.substring(source.length() - leftover);
-            pen.println("Invalid bits: '" + remainingBits + "' (length: " + leftover + ")");
-            foundError = true;
-          } // if
-          if (!foundError || asciiResult.length() > 0) {
+          StringBuilder problems = new StringBuilder();
+          BrailleAsciiTables.translateToAscii(source, asciiResult, (chunk, index) ->
+              problems.append(problem(target, chunk)).append(System.lineSeparator()));
+          pen.print(problems);
+          if (problems.length() == 0 || asciiResult.length() > 0) {
             pen.println("Result: " + asciiResult.toString());
           } // if
           break;
 
         case "unicode":
+          StringBuilder brailleBits = new StringBuilder();
+          StringBuilder unicodeProblems = new StringBuilder();
+          BrailleAsciiTables.translateToBraille(source, brailleBits, (chunk, index) ->
+              unicodeProblems.append(problem(target, chunk)).append(System.lineSeparator()));
+          pen.print(unicodeProblems);
           StringBuilder unicodeResult = new StringBuilder();
-          for (char c : source.toCharArray()) {
-            String brailleBits = BrailleAsciiTables.toBraille(c);
-            unicodeResult.append(BrailleAsciiTables.toUnicode(brailleBits));
-          } // for
+          BrailleAsciiTables.translateToUnicode(brailleBits, unicodeResult);
           pen.println(unicodeResult.toString());
           break;
 
         default:
           pen.println("Unsupported target: " + target);
       } // switch
-    } catch (RuntimeException e) {
+    } catch (RuntimeException | IOException e) {
       pen.println("Trouble translating because " + e.getMessage());
     } // try/catch
     pen.close();
@@ -0,0 +1,96 @@
+package edu.grinnell.csc207.main;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.SocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A client for BrailleServer. One connection may carry any number of
+ * requests, which are answered in order.
+ *
+ * @author Nicole Moreno Gonzalez
+ */
+public class BrailleClient implements AutoCloseable {
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The connection to the server.
+   */
+  private final SocketChannel connection;
+
+  /**
+   * Where responses arrive.
+   */
+  private final BufferedReader in;
+
+  /**
+   * Where requests go.
+   */
+  private final Writer out;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Connects to a server.
+   *
+   * @param address the server's TCP or Unix-domain socket address.
+   * @throws IOException if the server cannot be reached.
+   */
+  public BrailleClient(SocketAddress address) throws IOException {
+    this.connection = SocketChannel.open(address);
+    this.in = new BufferedReader(new InputStreamReader(
+        Channels.newInputStream(this.connection), StandardCharsets.UTF_8));
+    this.out = new OutputStreamWriter(Channels.newOutputStream(this.connection),
+        StandardCharsets.UTF_8);
+  } // BrailleClient(SocketAddress)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Asks the server for a translation.
+   *
+   * @param target the target character set.
+   * @param source the source characters, without line breaks.
+   * @return the translation.
+   * @throws IOException if the server cannot be reached or hangs up.
+   * @throws IllegalArgumentException if the server reports a problem with
+   *   the request, or the source contains a line break.
+   */
+  public String translate(String target, String source) throws IOException {
+    if (source.indexOf('\n') >= 0 || source.indexOf('\r') >= 0) {
+      throw new IllegalArgumentException("Sources may not contain line breaks.");
+    } // if
+    this.out.write(target + " " + source + "\n");
+    this.out.flush();
+    String response = this.in.readLine();
+    if (response == null) {
+      throw new IOException("Server closed the connection.");
+    } else if (response.startsWith("OK ")) {
+      return response.substring("OK ".length());
+    } // if/else
+    throw new IllegalArgumentException(response.substring(response.indexOf(' ') + 1));
+  } // translate(String, String)
+
+  /**
+   * Closes the connection.
+   *
+   * @throws IOException if the connection cannot be closed.
+   */
+  @Override
+  public void close() throws IOException {
+    this.connection.close();
+  } // close()
+} // class BrailleClient
@@ -0,0 +1,360 @@
+package edu.grinnell.csc207.main;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.ObjIntConsumer;
+
+import edu.grinnell.csc207.util.BrailleAsciiTables;
+
+/**
+ * A resident translation server, so that many translations share one
+ * JVM and one copy of the tables rather than each paying for startup.
+ * It listens on a loopback TCP port or a Unix-domain socket and serves
+ * each connection on its own thread: a virtual thread when the JVM has
+ * them, a pooled platform thread otherwise.
+ *
+ * The protocol is one line per request and one line per response, in
+ * UTF-8. A request is a target ("braille", "ascii" or "unicode"), a
+ * space, and the source text. The response is "OK " and the
+ * translation, or "ERROR " and what went wrong. Sources may not contain
+ * line breaks. A request longer than MAX_LINE characters is answered
+ * with "ERROR line too long" as soon as it is seen to be, and the rest of
+ * it is discarded.
+ *
+ * @author Nicole Moreno Gonzalez
+ */
+public class BrailleServer implements AutoCloseable {
+
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The file type bits of a Unix mode.
+   */
+  private static final int S_IFMT = 0170000;
+
+  /**
+   * The file type of a socket in a Unix mode.
+   */
+  private static final int S_IFSOCK = 0140000;
+
+  /**
+   * The most characters in a request, not counting its newline.
+   */
+  static final int MAX_LINE = 1 << 20;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The channel on which connections arrive.
+   */
+  private final ServerSocketChannel listener;
+
+  /**
+   * Runs the connections.
+   */
+  private final ExecutorService workers;
+
+  /**
+   * The Unix-domain socket address, to be removed on close, or null.
+   */
+  private final UnixDomainSocketAddress socketFile;
+
+  /**
+   * Whether the server has been closed.
+   */
+  private boolean closed;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Starts listening on an address. A stale Unix-domain socket left at
+   * the address by a server that is gone is replaced; anything else
+   * there is left alone.
+   *
+   * @param address a loopback TCP address or a Unix-domain socket address.
+   * @throws IOException if the address cannot be bound, or a Unix-domain
+   *   address names a file that is not a socket or a socket in use.
+   */
+  public BrailleServer(SocketAddress address) throws IOException {
+    if (address instanceof UnixDomainSocketAddress unix) {
+      removeStaleSocket(unix);
+      this.listener = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+      this.socketFile = unix;
+    } else {
+      this.listener = ServerSocketChannel.open();
+      this.socketFile = null;
+    } // if/else
+    this.listener.bind(address);
+    this.workers = newWorkers();
+  } // BrailleServer(SocketAddress)
+
+  // +---------------+-----------------------------------------------
+  // | Local helpers |
+  // +---------------+
+
+  /**
+   * Makes an executor that runs each task on a new virtual thread, if
+   * the JVM supports them, or on a cached platform thread otherwise. The
+   * build targets Java 17, so virtual threads are found reflectively.
+   *
+   * @return the executor.
+   */
+  private static ExecutorService newWorkers() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+          .invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return Executors.newCachedThreadPool();
+    } // try/catch
+  } // newWorkers()
+
+  /**
+   * Removes a Unix-domain socket file left behind by a server that is no
+   * longer running, so that a new one can be bound there.
+   *
+   * @param address the socket address.
+   * @throws IOException if the path exists but is not a socket, or a
+   *   server is still listening on it.
+   */
+  private static void removeStaleSocket(UnixDomainSocketAddress address) throws IOException {
+    Path path = address.getPath();
+    if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+      return;
+    } // if
+    if (!isSocket(path)) {
+      throw new FileAlreadyExistsException(path.toString(), null,
+          "not a socket; refusing to replace it");
+    } // if
+    boolean listening;
+    try {
+      SocketChannel.open(address).close();
+      listening = true;
+    } catch (IOException e) {
+      listening = false;
+    } // try/catch
+    if (listening) {
+      throw new FileAlreadyExistsException(path.toString(), null,
+          "another server is listening on it");
+    } // if
+    Files.delete(path);
+  } // removeStaleSocket(UnixDomainSocketAddress)
+
+  /**
+   * Determines whether a path names a socket, from its Unix mode where
+   * the file system has one.
+   *
+   * @param path the path.
+   * @return true if it is a socket.
+   * @throws IOException if the path's attributes cannot be read.
+   */
+  private static boolean isSocket(Path path) throws IOException {
+    try {
+      int mode = (Integer) Files.getAttribute(path, "unix:mode", LinkOption.NOFOLLOW_LINKS);
+      return (mode & S_IFMT) == S_IFSOCK;
+    } catch (UnsupportedOperationException | IllegalArgumentException e) {
+      return Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS)
+          .isOther();
+    } // try/catch
+  } // isSocket(Path)
+
+  /**
+   * Answers requests on a connection until the client closes it.
+   *
+   * @param connection the connection.
+   */
+  private static void handle(SocketChannel connection) {
+    try (connection;
+        BufferedReader in = new BufferedReader(new InputStreamReader(
+            Channels.newInputStream(connection), StandardCharsets.UTF_8));
+        Writer out = new OutputStreamWriter(Channels.newOutputStream(connection),
+            StandardCharsets.UTF_8)) {
+      StringBuilder request = new StringBuilder();
+      while (readLine(in, request)) {
+        if (request.length() > MAX_LINE) {
+          // Answer now, since the rest of the line may never come.
+          out.write("ERROR line too long\n");
+          out.flush();
+          skipLine(in);
+          continue;
+        } // if
+        out.write(respond(request.toString()));
+        out.write('\n');
+        out.flush();
+      } // while
+    } catch (IOException e) {
+      // The client went away; nothing more to do.
+    } // try/catch
+  } // handle(SocketChannel)
+
+  /**
+   * Reads a request, without its line break. At most MAX_LINE + 1
+   * characters are kept, so that a longer request cannot use up memory;
+   * the rest of it is left unread.
+   *
+   * @param in where to read.
+   * @param line where to put the request, replacing what was there.
+   * @return false if the input had already ended, true otherwise.
+   * @throws IOException if the input cannot be read.
+   */
+  private static boolean readLine(Reader in, StringBuilder line) throws IOException {
+    line.setLength(0);
+    int c;
+    while ((c = in.read()) >= 0 && c != '\n') {
+      line.append((char) c);
+      if (line.length() > MAX_LINE) {
+        return true;
+      } // if
+    } // while
+    if (c == '\n' && line.length() > 0 && line.charAt(line.length() - 1) == '\r') {
+      line.setLength(line.length() - 1);
+    } // if
+    return c >= 0 || line.length() > 0;
+  } // readLine(Reader, StringBuilder)
+
+  /**
+   * Discards input through the end of the current line.
+   *
+   * @param in where to read.
+   * @throws IOException if the input cannot be read.
+   */
+  private static void skipLine(Reader in) throws IOException {
+    int c;
+    do {
+      c = in.read();
+    } while (c >= 0 && c != '\n');
+  } // skipLine(Reader)
+
+  // +----------------+----------------------------------------------
+  // | Static methods |
+  // +----------------+
+
+  /**
+   * Interprets an address given on the command line: a number is a TCP
+   * port on the loopback interface, anything else the path of a
+   * Unix-domain socket.
+   *
+   * @param spec the port or path.
+   * @return the address.
+   */
+  public static SocketAddress address(String spec) {
+    if (!spec.isEmpty() && spec.chars().allMatch(Character::isDigit)) {
+      return new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(spec));
+    } // if
+    return UnixDomainSocketAddress.of(spec);
+  } // address(String)
+
+  /**
+   * Answers one request.
+   *
+   * @param request the target, a space, and the source.
+   * @return the response line, without its line break.
+   */
+  static String respond(String request) {
+    int space = request.indexOf(' ');
+    String target = ((space < 0) ? request : request.substring(0, space)).toLowerCase();
+    String source = (space < 0) ? "" : request.substring(space + 1);
+    StringBuilder result = new StringBuilder();
+    StringJoiner problems = new StringJoiner("; ");
+    ObjIntConsumer<String> invalid =
+        (chunk, index) -> problems.add(BrailleASCII.problem(target, chunk));
+    try {
+      switch (target) {
+        case "braille" -> BrailleAsciiTables.translateToBraille(source, result, invalid);
+        case "ascii" -> BrailleAsciiTables.translateToAscii(source, result, invalid);
+        case "unicode" -> {
+          StringBuilder bits = new StringBuilder();
+          BrailleAsciiTables.translateToBraille(source, bits, invalid);
+          BrailleAsciiTables.translateToUnicode(bits, result);
+        } // case "unicode"
+        default -> {
+          return "ERROR Unsupported target: " + target;
+        } // default
+      } // switch
+    } catch (RuntimeException | IOException e) {
+      return "ERROR Trouble translating because " + e.getMessage();
+    } // try/catch
+    if (problems.length() > 0) {
+      return "ERROR " + problems;
+    } // if
+    return "OK " + result;
+  } // respond(String)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Gets the address the server is listening on, which tells the port
+   * chosen when the server was bound to port 0.
+   *
+   * @return the address.
+   * @throws IOException if the server has been closed.
+   */
+  public SocketAddress localAddress() throws IOException {
+    return this.listener.getLocalAddress();
+  } // localAddress()
+
+  /**
+   * Accepts connections until the server is closed.
+   *
+   * @throws IOException if a connection cannot be accepted.
+   */
+  public void serve() throws IOException {
+    try {
+      while (true) {
+        SocketChannel connection = this.listener.accept();
+        this.workers.execute(() -> handle(connection));
+      } // while
+    } catch (AsynchronousCloseException e) {
+      // Closed while waiting; stop serving.
+    } // try/catch
+  } // serve()
+
+  /**
+   * Stops accepting connections, interrupts those in progress, and
+   * removes the Unix-domain socket file, if any. Closing again does
+   * nothing.
+   *
+   * @throws IOException if the listener or socket file cannot be closed.
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    if (this.closed) {
+      return;
+    } // if
+    this.closed = true;
+    this.listener.close();
+    this.workers.shutdownNow();
+    if (this.socketFile != null) {
+      Files.deleteIfExists(this.socketFile.getPath());
+    } // if
+  } // close()
+} // class BrailleServer
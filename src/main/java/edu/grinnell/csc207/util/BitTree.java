@@ -1,33 +1,78 @@
 package edu.grinnell.csc207.util;
 
-import java.io.BufferedReader;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Trees intended to be used in storing mappings between fixed-length
  * sequences of bits and corresponding values.
  *
+ * @param <V> the type of values stored in the tree.
+ *
  * @author Nicole Moreno Gonzalez
  */
-public class BitTree {
+public class BitTree<V> {
+
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The largest bit length whose keys fit in a <code>long</code>.
+   */
+  static final int LONG_BITS = Long.SIZE;
+
+  /**
+   * The initial size of the buffer used when loading.
+   */
+  private static final int LOAD_BUFFER_SIZE = 1 << 16;
+
+  /**
+   * The number of lookups that <code>getAll</code> advances together.
+   */
+  private static final int LOOKUP_GROUP = 16;
 
   // +--------+------------------------------------------------------
   // | Fields |
   // +--------+
 
   /**
-   * The root of the tree.
+   * The root of the tree. Replaced only by <code>compact</code>.
    */
-  private final BitTreeNode root;
+  private BitTreeNode<V> root;
 
   /**
    * The length of bit sequences stored in the tree.
    */
   private final int bitLength;
 
+  /**
+   * The number of bits consumed by each level of interior nodes.
+   */
+  private final int stride;
+
+  /**
+   * The number of nodes on each level, from the root down to the leaves,
+   * kept up to date as nodes are added.
+   */
+  private final long[] levelCounts;
+
   // +--------------+------------------------------------------------
   // | Constructors |
   // +--------------+
@@ -38,103 +83,556 @@ public class BitTree {
    * @param n the length of bit sequences.
    */
   public BitTree(int n) {
-    this.bitLength = n;
-    this.root = new BitTreeInteriorNode();
+    this(n, 1);
   } // BitTree(int)
 
+  /**
+   * Constructs a new BitTree for sequences of a given length whose
+   * interior nodes each consume several bits. A larger stride makes
+   * lookups shallower (an 8-bit key with stride 4 takes two steps rather
+   * than eight) at the cost of nodes with more, possibly empty, children.
+   *
+   * @param n the length of bit sequences.
+   * @param stride the number of bits per level: 1, 2, 4 or 8.
+   * @throws IllegalArgumentException if the stride is not supported.
+   */
+  public BitTree(int n, int stride) {
+    if (stride != 1 && stride != 2 && stride != 4 && stride != 8) {
+      throw new IllegalArgumentException("Stride must be 1, 2, 4 or 8.");
+    } // if
+    this.bitLength = n;
+    this.stride = stride;
+    this.levelCounts = new long[Math.max(levels(), 1) + 1];
+    if (n == 0) {
+      this.root = new BitTreeInteriorNode<>();
+      this.levelCounts[0] = 1;
+    } else {
+      this.root = newNode(0);
+    } // if/else
+  } // BitTree(int, int)
+
   // +---------------+-----------------------------------------------
   // | Local helpers |
   // +---------------+
 
+  /**
+   * Converts a bit string into the equivalent key, most significant bit
+   * first.
+   *
+   * @param bits the bit sequence.
+   * @param bitLength the number of bits expected.
+   * @return the corresponding key.
+   * @throws IndexOutOfBoundsException if the length does not match.
+   * @throws IllegalArgumentException if a character is not a bit.
+   */
+  static long parseBits(String bits, int bitLength) {
+    if (bits.length() != bitLength) {
+      throw new IndexOutOfBoundsException("Bit length mismatch.");
+    } // if
+    long key = 0;
+    for (int i = 0; i < bits.length(); i++) {
+      char bit = bits.charAt(i);
+      if (bit != '0' && bit != '1') {
+        throw new IllegalArgumentException("Invalid bit: " + bit);
+      } // if
+      key = (key << 1) | (bit - '0');
+    } // for
+    return key;
+  } // parseBits(String)
 
   /**
-   * A recursive helper method for setting a value in the tree.
+   * Ensures that a numeric key names a path in a tree.
    *
-   * @param node the current node being processed.
-   * @param bits the remaining bits to process.
+   * @param key the key to check.
+   * @param bitLength the bit length of the tree.
+   * @throws IllegalStateException if the tree is too deep for numeric
+   *   keys (use a BitSet key instead).
+   * @throws IndexOutOfBoundsException if the key has too many bits.
+   */
+  static void checkKey(long key, int bitLength) {
+    if (bitLength > LONG_BITS) {
+      throw new IllegalStateException("Keys longer than 64 bits require a String or BitSet.");
+    } // if
+    if ((bitLength < LONG_BITS) && ((key >>> bitLength) != 0)) {
+      throw new IndexOutOfBoundsException("Key out of range.");
+    } // if
+  } // checkKey(long, int)
+
+  /**
+   * Determines how many bits the interior node at a given depth consumes.
+   * Every level consumes a full stride except perhaps the last.
+   *
+   * @param depth the number of bits consumed above the node.
+   * @return the number of bits the node consumes.
+   */
+  private int width(int depth) {
+    return Math.min(this.stride, this.bitLength - depth);
+  } // width(int)
+
+  /**
+   * Makes a node for a given depth, and counts it.
+   *
+   * @param depth the number of bits consumed above the node.
+   * @return a leaf, binary node or multiway node, as appropriate.
+   */
+  private BitTreeNode<V> newNode(int depth) {
+    this.levelCounts[(depth + this.stride - 1) / this.stride]++;
+    int width = width(depth);
+    if (width == 0) {
+      return new BitTreeLeaf<>();
+    } else if (width == 1) {
+      return new BitTreeInteriorNode<>();
+    } else {
+      return new BitTreeMultiwayNode<>(width);
+    } // if/else
+  } // newNode(int)
+
+  /**
+   * Converts a bit string that may be longer than 64 bits into words in
+   * the form used by <code>BitSet.toLongArray</code>: the last bit of the
+   * string is bit 0 of the first word.
+   *
+   * @param bits the bit sequence.
+   * @param bitLength the number of bits expected.
+   * @return the corresponding words.
+   * @throws IndexOutOfBoundsException if the length does not match.
+   * @throws IllegalArgumentException if a character is not a bit.
+   */
+  static long[] parseWords(String bits, int bitLength) {
+    if (bits.length() != bitLength) {
+      throw new IndexOutOfBoundsException("Bit length mismatch.");
+    } // if
+    long[] words = new long[(bitLength + LONG_BITS - 1) / LONG_BITS];
+    for (int i = 0; i < bitLength; i++) {
+      char bit = bits.charAt(bitLength - 1 - i);
+      if (bit == '1') {
+        words[i / LONG_BITS] |= 1L << i;
+      } else if (bit != '0') {
+        throw new IllegalArgumentException("Invalid bit: " + bit);
+      } // if/else
+    } // for
+    return words;
+  } // parseWords(String, int)
+
+  /**
+   * Parses a key of at most 64 bits from ASCII bytes.
+   *
+   * @param bytes the bytes.
+   * @param start the index of the first bit.
+   * @param end the index just past the last bit.
+   * @return the key.
+   * @throws IndexOutOfBoundsException if the length does not match.
+   * @throws IllegalArgumentException if a byte is not a bit.
+   */
+  private long parseKey(byte[] bytes, int start, int end) {
+    if (end - start != this.bitLength) {
+      throw new IndexOutOfBoundsException("Bit length mismatch.");
+    } // if
+    long key = 0;
+    for (int i = start; i < end; i++) {
+      int bit = bytes[i] - '0';
+      if ((bit & ~1) != 0) {
+        throw new IllegalArgumentException("Invalid bit: " + (char) bytes[i]);
+      } // if
+      key = (key << 1) | bit;
+    } // for
+    return key;
+  } // parseKey(byte[], int, int)
+
+  /**
+   * Gets the number of levels of interior nodes.
+   *
+   * @return the number of levels.
+   */
+  private int levels() {
+    return (this.bitLength + this.stride - 1) / this.stride;
+  } // levels()
+
+  /**
+   * Determines how many levels of nodes two keys have in common, so that
+   * an insertion can start where the previous one diverged.
+   *
+   * @param previous one key.
+   * @param key another key.
+   * @return the deepest level whose node is on both paths.
+   */
+  private int sharedLevels(long previous, long key) {
+    long diff = previous ^ key;
+    if (diff == 0) {
+      return levels();
+    } // if
+    int firstDifference = this.bitLength - LONG_BITS + Long.numberOfLeadingZeros(diff);
+    return firstDifference / this.stride;
+  } // sharedLevels(long, long)
+
+  /**
+   * Sets the value at the path named by a key, starting from a node
+   * already known to be on that path, and records the nodes on the path.
+   *
+   * @param path the nodes on the path, valid down to the given level.
+   * @param level the level at which to start.
+   * @param key the key, already checked.
    * @param value the value to set.
    */
-  private void setHelper(BitTreeNode node, String bits, String value) {
-    if (bits.isEmpty()) {
-      if (node instanceof BitTreeLeaf bitTreeLeaf) {
-        bitTreeLeaf.setValue(value);
-      } else {
-        throw new IllegalStateException("Expected a leaf node.");
-      } // else
-      return;
+  private void setFrom(BitTreeNode<V>[] path, int level, long key, V value) {
+    BitTreeNode<V> node = path[level];
+    int depth = Math.min(level * this.stride, this.bitLength);
+    while (depth < this.bitLength) {
+      int width = width(depth);
+      depth += width;
+      int index = chunk(key, null, this.bitLength - depth, width);
+      BitTreeNode<V> child = node.getChild(index);
+      if (child == null) {
+        child = newNode(depth);
+        node.setChild(index, child);
+      } // if
+      node = child;
+      path[++level] = node;
+    } // while
+    if (node instanceof BitTreeLeaf<V> bitTreeLeaf) {
+      bitTreeLeaf.setValue(value);
+    } else {
+      throw new IllegalStateException("Expected a leaf node.");
+    } // else
+  } // setFrom(BitTreeNode<V>[], int, long, V)
+
+  /**
+   * Visits every leaf in key order.
+   *
+   * @param visitor given the path to each leaf, as '0' and '1'
+   *   characters in an array that is reused for the next leaf, and the
+   *   leaf's value.
+   */
+  @SuppressWarnings("unchecked")
+  private void walk(BiConsumer<char[], ? super V> visitor) {
+    // An explicit stack, with one entry per level: the node, and the
+    // next of its children to visit.
+    int levels = levels() + 1;
+    BitTreeNode<V>[] nodes = (BitTreeNode<V>[]) new BitTreeNode<?>[levels];
+    int[] next = new int[levels];
+    char[] path = new char[this.bitLength];
+    nodes[0] = this.root;
+    int level = 0;
+    while (level >= 0) {
+      BitTreeNode<V> node = nodes[level];
+      if (node.isLeaf()) {
+        visitor.accept(path, node.getValue());
+        level--;
+        continue;
+      } // if
+      int depth = Math.min(level * this.stride, this.bitLength);
+      int width = width(depth);
+      int i = next[level];
+      while (i < (1 << width) && node.getChild(i) == null) {
+        i++;
+      } // while
+      if (i == (1 << width)) {
+        level--;
+        continue;
+      } // if
+      next[level] = i + 1;
+      for (int b = 0; b < width; b++) {
+        path[depth + b] = (char) ('0' + ((i >>> (width - 1 - b)) & 1));
+      } // for
+      level++;
+      nodes[level] = node.getChild(i);
+      next[level] = 0;
+    } // while
+  } // walk(BiConsumer)
+
+  /**
+   * Lays out a binary snapshot of the tree.
+   *
+   * @param formatter converts each non-null value into the text to store.
+   * @return a heap buffer holding the snapshot.
+   */
+  private ByteBuffer snapshot(Function<? super V, String> formatter) {
+    BitTreeSnapshot.Builder builder = new BitTreeSnapshot.Builder(this.bitLength, this.stride);
+    walk((path, value) -> builder.add(path, (value == null) ? null : formatter.apply(value)));
+    return builder.build();
+  } // snapshot(Function)
+
+  /**
+   * Rebuilds a tree from a snapshot. Leaves come out of the snapshot in
+   * key order, so each insertion starts where the previous one diverged.
+   *
+   * @param <V> the type of values in the tree.
+   * @param snapshot the snapshot.
+   * @param parser converts the stored text into a value; null values
+   *   stay null without it.
+   * @return the tree.
+   */
+  static <V> BitTree<V> fromSnapshot(BitTreeSnapshot snapshot,
+      Function<String, ? extends V> parser) {
+    int n = snapshot.bitLength;
+    BitTree<V> tree = new BitTree<>(n, snapshot.stride);
+    BitTree<V>.InOrderInserter inserter = tree.new InOrderInserter();
+    // An explicit stack of snapshot nodes, with the next bit to visit in
+    // each, and the key so far as characters.
+    int[] nodes = new int[Math.max(n, 1)];
+    int[] next = new int[Math.max(n, 1)];
+    char[] bits = new char[n];
+    int depth = (n == 0) ? -1 : 0;
+    while (depth >= 0) {
+      if (next[depth] == 2) {
+        depth--;
+        continue;
+      } // if
+      int bit = next[depth]++;
+      int link = snapshot.child(nodes[depth], bit);
+      bits[depth] = (char) ('0' + bit);
+      if (link > 0 && depth < n - 1) {
+        depth++;
+        nodes[depth] = link;
+        next[depth] = 0;
+      } else if (link < 0 && depth == n - 1) {
+        String text = snapshot.value(-link - 1);
+        inserter.add(bits, (text == null) ? null : parser.apply(text));
+      } else if (link != 0) {
+        throw new IllegalArgumentException("Corrupt BitTree snapshot.");
+      } // if/else
+    } // while
+    return tree;
+  } // fromSnapshot(BitTreeSnapshot, Function)
+
+  /**
+   * Extracts a few bits of a key, given either as a long or as words.
+   *
+   * @param key the key, if words is null.
+   * @param words the key as words, or null.
+   * @param from the index (counting from the least significant bit) of
+   *   the lowest bit wanted.
+   * @param width the number of bits wanted, at most 8.
+   * @return those bits, right-aligned.
+   */
+  private static int chunk(long key, long[] words, int from, int width) {
+    int mask = (1 << width) - 1;
+    if (words == null) {
+      return (int) (key >>> from) & mask;
+    } // if
+    int word = from / LONG_BITS;
+    int shift = from % LONG_BITS;
+    long bits = words[word] >>> shift;
+    if (shift + width > LONG_BITS && word + 1 < words.length) {
+      bits |= words[word + 1] << (LONG_BITS - shift);
     } // if
+    return (int) bits & mask;
+  } // chunk(long, long[], int, int)
 
-    BitTreeInteriorNode interior = (BitTreeInteriorNode) node;
-    char bit = bits.charAt(0);
+  /**
+   * Sets the value at the path named by a key, creating nodes as needed.
+   * Walks the tree one level at a time from the most significant bit.
+   *
+   * @param key the key, if words is null, already checked.
+   * @param words the key as words, or null, already checked.
+   * @param value the value to set.
+   */
+  private void setAt(long key, long[] words, V value) {
+    BitTreeNode<V> node = this.root;
+    int depth = 0;
+    while (depth < this.bitLength) {
+      int width = width(depth);
+      depth += width;
+      int index = chunk(key, words, this.bitLength - depth, width);
+      BitTreeNode<V> child = node.getChild(index);
+      if (child == null) {
+        child = newNode(depth);
+        node.setChild(index, child);
+      } // if
+      node = child;
+    } // while
+    if (node instanceof BitTreeLeaf<V> bitTreeLeaf) {
+      bitTreeLeaf.setValue(value);
+    } else {
+      throw new IllegalStateException("Expected a leaf node.");
+    } // else
+  } // setAt(long, long[], V)
 
-    switch (bit) {
-      case '0' -> {
-        if (interior.getLeft() == null) {
-          interior.setLeft(bits.length() == 1 ? new BitTreeLeaf() : new BitTreeInteriorNode());
-        } // if
-        setHelper(interior.getLeft(), bits.substring(1), value);
-      } // case
-      case '1' -> {
-        if (interior.getRight() == null) {
-          interior.setRight(bits.length() == 1 ? new BitTreeLeaf() : new BitTreeInteriorNode());
-        } // if
-        setHelper(interior.getRight(), bits.substring(1), value);
-      } // case
-      default -> throw new IllegalArgumentException("Invalid bit: " + bit);
-    } // switch
-  } // setHelper
+  /**
+   * Gets the value at the path named by a key.
+   *
+   * @param key the key, if words is null, already checked.
+   * @param words the key as words, or null, already checked.
+   * @return the stored value.
+   */
+  private V getAt(long key, long[] words) {
+    BitTreeNode<V> node = this.root;
+    int depth = 0;
+    while (depth < this.bitLength) {
+      int width = width(depth);
+      depth += width;
+      node = node.getChild(chunk(key, words, this.bitLength - depth, width));
+      if (node == null) {
+        throw new IndexOutOfBoundsException("Path does not exist.");
+      } // if
+    } // while
+    if (node instanceof BitTreeLeaf<V> bitTreeLeaf) {
+      return bitTreeLeaf.getValue();
+    } // if
+    throw new IllegalStateException("Path does not lead to a value.");
+  } // getAt(long, long[])
 
   /**
-   * A recursive helper method for retrieving a value from the tree.
+   * Finds the leaf at the path named by a key, without throwing.
    *
-   * @param node the current node being processed.
-   * @param bits the remaining bits to process.
-   * @return the stored value, if found.
+   * @param key the key, if words is null, already checked.
+   * @param words the key as words, or null, already checked.
+   * @return the leaf, or null if the path does not exist.
    */
-  private String getHelper(BitTreeNode node, String bits) {
-    if (node == null) {
-      throw new IndexOutOfBoundsException("Path does not exist.");
+  private BitTreeNode<V> findAt(long key, long[] words) {
+    BitTreeNode<V> node = this.root;
+    int depth = 0;
+    while (depth < this.bitLength && node != null) {
+      int width = width(depth);
+      depth += width;
+      node = node.getChild(chunk(key, words, this.bitLength - depth, width));
+    } // while
+    return (node != null && node.isLeaf()) ? node : null;
+  } // findAt(long, long[])
+
+  /**
+   * Determines whether a string is a bit sequence of the right length.
+   *
+   * @param bits the string.
+   * @return true if it has bitLength characters, all '0' or '1'.
+   */
+  private boolean isKey(String bits) {
+    if (bits.length() != this.bitLength) {
+      return false;
     } // if
-    if (bits.isEmpty()) {
-      if (node instanceof BitTreeLeaf bitTreeLeaf) {
-        return bitTreeLeaf.getValue();
+    for (int i = 0; i < bits.length(); i++) {
+      if (((bits.charAt(i) - '0') & ~1) != 0) {
+        return false;
+      } // if
+    } // for
+    return true;
+  } // isKey(String)
+
+  /**
+   * Removes the value at the path named by a key, along with any
+   * interior nodes left without children.
+   *
+   * @param key the key, if words is null, already checked.
+   * @param words the key as words, or null, already checked.
+   * @return the value removed, or null if there was none.
+   */
+  @SuppressWarnings("unchecked")
+  private V removeAt(long key, long[] words) {
+    int levels = levels();
+    BitTreeNode<V>[] nodes = (BitTreeNode<V>[]) new BitTreeNode<?>[levels + 1];
+    int[] indices = new int[levels + 1];
+    nodes[0] = this.root;
+    int level = 0;
+    int depth = 0;
+    while (depth < this.bitLength) {
+      int width = width(depth);
+      depth += width;
+      indices[level] = chunk(key, words, this.bitLength - depth, width);
+      BitTreeNode<V> child = nodes[level].getChild(indices[level]);
+      if (child == null) {
+        return null;
       } // if
-      throw new IllegalStateException("Path does not lead to a value.");
+      nodes[++level] = child;
+    } // while
+    if (level == 0) {
+      return null;
     } // if
+    V value = nodes[level].getValue();
+    // Detach the leaf, then each ancestor that it leaves empty.
+    do {
+      this.levelCounts[level]--;
+      level--;
+      nodes[level].setChild(indices[level], null);
+    } while (level > 0 && isEmpty(nodes[level], Math.min(level * this.stride, this.bitLength)));
+    return value;
+  } // removeAt(long, long[])
 
-    BitTreeInteriorNode interior = (BitTreeInteriorNode) node;
-    char bit = bits.charAt(0);
+  /**
+   * Determines whether an interior node has no children.
+   *
+   * @param node the node.
+   * @param depth the number of bits consumed above the node.
+   * @return true if every child is null.
+   */
+  private boolean isEmpty(BitTreeNode<V> node, int depth) {
+    int fanout = 1 << width(depth);
+    for (int i = 0; i < fanout; i++) {
+      if (node.getChild(i) != null) {
+        return false;
+      } // if
+    } // for
+    return true;
+  } // isEmpty(BitTreeNode<V>, int)
 
-    switch (bit) {
-      case '0' -> {
-        return getHelper(interior.getLeft(), bits.substring(1));
-      } // case
-      case '1' -> {
-        return getHelper(interior.getRight(), bits.substring(1));
-      } // case
-      default -> throw new IllegalArgumentException("Invalid bit: " + bit);
-    } // switch
-  } // getHelper
+  /**
+   * Looks up a group of keys a level at a time, so that the loads for
+   * different keys are independent and their cache misses can overlap.
+   *
+   * @param keys the keys, already checked.
+   * @param count the number of keys.
+   * @param nodes scratch space for the node reached by each key.
+   * @param out where to store the values.
+   * @param offset the index in out of the first value.
+   * @throws IndexOutOfBoundsException if a key names no value.
+   */
+  private void getGroup(long[] keys, int count, BitTreeNode<V>[] nodes, V[] out, int offset) {
+    Arrays.fill(nodes, 0, count, this.root);
+    int depth = 0;
+    while (depth < this.bitLength) {
+      int width = width(depth);
+      depth += width;
+      for (int j = 0; j < count; j++) {
+        BitTreeNode<V> child = nodes[j].getChild(chunk(keys[j], null, this.bitLength - depth,
+            width));
+        if (child == null) {
+          throw new IndexOutOfBoundsException("Path does not exist.");
+        } // if
+        nodes[j] = child;
+      } // for
+    } // while
+    for (int j = 0; j < count; j++) {
+      out[offset + j] = nodes[j].getValue();
+    } // for
+  } // getGroup(long[], int, BitTreeNode<V>[], V[], int)
+
+  /**
+   * Converts a BitSet key into words, checking that it fits.
+   *
+   * @param key the key.
+   * @return the key as words, with at least enough words for bitLength bits.
+   * @throws IndexOutOfBoundsException if the key has more than bitLength bits.
+   */
+  private long[] words(BitSet key) {
+    if (key.length() > this.bitLength) {
+      throw new IndexOutOfBoundsException("Key out of range.");
+    } // if
+    return Arrays.copyOf(key.toLongArray(), (this.bitLength + LONG_BITS - 1) / LONG_BITS);
+  } // words(BitSet)
 
   /**
-   * A recursive helper method for dumping the tree contents.
+   * A recursive helper method for copying the tree into flat arrays.
    *
    * @param node the current node being processed.
-   * @param prefix the current bit path.
-   * @param pen the writer to output the tree's contents.
+   * @param depth the number of bits consumed above the node.
+   * @param key the bits on the path to the node.
+   * @param values the values, indexed by key.
+   * @param present one bit per key, set when the key has a value.
    */
-  private void dumpHelper(BitTreeNode node, String prefix, PrintWriter pen) {
+  private void freezeHelper(BitTreeNode<V> node, int depth, long key, Object[] values,
+      long[] present) {
     if (node == null) {
       return;
     } // if
     if (node.isLeaf()) {
-      pen.println(prefix + "," + node.getValue());
+      values[(int) key] = node.getValue();
+      present[(int) (key >>> 6)] |= 1L << key;
     } else {
-      BitTreeInteriorNode interior = (BitTreeInteriorNode) node;
-      dumpHelper(interior.getLeft(), prefix + "0", pen);
-      dumpHelper(interior.getRight(), prefix + "1", pen);
+      int width = width(depth);
+      for (int i = 0; i < (1 << width); i++) {
+        freezeHelper(node.getChild(i), depth + width, (key << width) | i, values, present);
+      } // for
     } // else
-  } // dumpHelper
+  } // freezeHelper
 
   // +---------+-----------------------------------------------------
   // | Methods |
@@ -146,12 +644,51 @@ public class BitTree {
    * @param bits the bit sequence.
    * @param value the value to set.
    */
-  public void set(String bits, String value) {
-    if (bits.length() != this.bitLength) {
-      throw new IndexOutOfBoundsException("Bit length mismatch.");
-    } // if
-    setHelper(this.root, bits, value);
-  } // set(String, String)
+  public void set(String bits, V value) {
+    if (this.bitLength > LONG_BITS) {
+      setAt(0, parseWords(bits, this.bitLength), value);
+    } else {
+      setAt(parseBits(bits, this.bitLength), null, value);
+    } // if/else
+  } // set(String, V)
+
+  /**
+   * Sets the value for the bit sequence given by the low bitLength bits
+   * of a key, most significant bit first. The key is treated as unsigned.
+   *
+   * @param key the key.
+   * @param value the value to set.
+   * @throws IndexOutOfBoundsException if the key has more than bitLength bits.
+   */
+  public void set(int key, V value) {
+    set(Integer.toUnsignedLong(key), value);
+  } // set(int, V)
+
+  /**
+   * Sets the value for the bit sequence given by the low bitLength bits
+   * of a key, most significant bit first. The key is treated as unsigned.
+   *
+   * @param key the key.
+   * @param value the value to set.
+   * @throws IndexOutOfBoundsException if the key has more than bitLength bits.
+   */
+  public void set(long key, V value) {
+    checkKey(key, this.bitLength);
+    setAt(key, null, value);
+  } // set(long, V)
+
+  /**
+   * Sets the value for the bit sequence given by a BitSet, in which bit
+   * i has weight 2<sup>i</sup>, so that bit bitLength - 1 comes first.
+   * Works for any bit length.
+   *
+   * @param key the key.
+   * @param value the value to set.
+   * @throws IndexOutOfBoundsException if the key has more than bitLength bits.
+   */
+  public void set(BitSet key, V value) {
+    setAt(0, words(key), value);
+  } // set(BitSet, V)
 
   /**
    * Gets the value for a specific bit sequence.
@@ -159,12 +696,312 @@ public class BitTree {
    * @param bits the bit sequence.
    * @return the corresponding value.
    */
-  public String get(String bits) {
-    if (bits.length() != this.bitLength) {
+  public V get(String bits) {
+    if (this.bitLength > LONG_BITS) {
+      return getAt(0, parseWords(bits, this.bitLength));
+    } // if
+    return getAt(parseBits(bits, this.bitLength), null);
+  } // get(String)
+
+  /**
+   * Gets the value for the bit sequence given by the low bitLength bits
+   * of a key, most significant bit first. The key is treated as unsigned.
+   * Unlike <code>get(String)</code>, this allocates nothing.
+   *
+   * @param key the key.
+   * @return the corresponding value.
+   * @throws IndexOutOfBoundsException if the key has more than bitLength
+   *   bits or names no value.
+   */
+  public V get(int key) {
+    return get(Integer.toUnsignedLong(key));
+  } // get(int)
+
+  /**
+   * Gets the value for the bit sequence given by the low bitLength bits
+   * of a key, most significant bit first. The key is treated as unsigned.
+   *
+   * @param key the key.
+   * @return the corresponding value.
+   * @throws IndexOutOfBoundsException if the key has more than bitLength
+   *   bits or names no value.
+   */
+  public V get(long key) {
+    checkKey(key, this.bitLength);
+    return getAt(key, null);
+  } // get(long)
+
+  /**
+   * Gets the value for the bit sequence given by a BitSet, in which bit
+   * i has weight 2<sup>i</sup>, so that bit bitLength - 1 comes first.
+   * Works for any bit length.
+   *
+   * @param key the key.
+   * @return the corresponding value.
+   * @throws IndexOutOfBoundsException if the key has more than bitLength
+   *   bits or names no value.
+   */
+  public V get(BitSet key) {
+    return getAt(0, words(key));
+  } // get(BitSet)
+
+  /**
+   * Gets the value for a bit sequence, or a default if the sequence is
+   * not a valid key or has no value. Unlike <code>get</code>, this never
+   * throws, so it is much cheaper when many lookups miss.
+   *
+   * @param bits the bit sequence.
+   * @param defaultValue the value to return when there is none.
+   * @return the corresponding value, or defaultValue.
+   */
+  public V getOrDefault(String bits, V defaultValue) {
+    if (!isKey(bits)) {
+      return defaultValue;
+    } // if
+    BitTreeNode<V> leaf = (this.bitLength > LONG_BITS)
+        ? findAt(0, parseWords(bits, this.bitLength))
+        : findAt(parseBits(bits, this.bitLength), null);
+    return (leaf == null) ? defaultValue : leaf.getValue();
+  } // getOrDefault(String, V)
+
+  /**
+   * Gets the value for the bit sequence given by the low bitLength bits
+   * of a key, or a default if the key is out of range or has no value.
+   * The key is treated as unsigned.
+   *
+   * @param key the key.
+   * @param defaultValue the value to return when there is none.
+   * @return the corresponding value, or defaultValue.
+   */
+  public V getOrDefault(int key, V defaultValue) {
+    return getOrDefault(Integer.toUnsignedLong(key), defaultValue);
+  } // getOrDefault(int, V)
+
+  /**
+   * Gets the value for the bit sequence given by the low bitLength bits
+   * of a key, or a default if the key is out of range or has no value.
+   * The key is treated as unsigned.
+   *
+   * @param key the key.
+   * @param defaultValue the value to return when there is none.
+   * @return the corresponding value, or defaultValue.
+   */
+  public V getOrDefault(long key, V defaultValue) {
+    if (this.bitLength > LONG_BITS
+        || (this.bitLength < LONG_BITS && (key >>> this.bitLength) != 0)) {
+      return defaultValue;
+    } // if
+    BitTreeNode<V> leaf = findAt(key, null);
+    return (leaf == null) ? defaultValue : leaf.getValue();
+  } // getOrDefault(long, V)
+
+  /**
+   * Gets the values for many keys at once. The lookups advance through
+   * the tree together, a level at a time, which is much faster than
+   * calling <code>get</code> in a loop when the tree is too large for the
+   * cache. On trees with keys longer than 64 bits, the keys are looked
+   * up one at a time, as BitSets.
+   *
+   * @param keys the keys, each treated as unsigned.
+   * @param out where to store the values, in the same order.
+   * @throws IllegalArgumentException if out is shorter than keys.
+   * @throws IndexOutOfBoundsException if a key has more than bitLength
+   *   bits or names no value.
+   */
+  @SuppressWarnings("unchecked")
+  public void getAll(int[] keys, V[] out) {
+    if (out.length < keys.length) {
+      throw new IllegalArgumentException("Output array too short.");
+    } // if
+    if (this.bitLength > LONG_BITS) {
+      for (int i = 0; i < keys.length; i++) {
+        out[i] = get(BitSet.valueOf(new long[] {Integer.toUnsignedLong(keys[i])}));
+      } // for
+      return;
+    } // if
+    long[] group = new long[LOOKUP_GROUP];
+    BitTreeNode<V>[] nodes = (BitTreeNode<V>[]) new BitTreeNode<?>[LOOKUP_GROUP];
+    for (int start = 0; start < keys.length; start += LOOKUP_GROUP) {
+      int count = Math.min(LOOKUP_GROUP, keys.length - start);
+      for (int j = 0; j < count; j++) {
+        group[j] = Integer.toUnsignedLong(keys[start + j]);
+        checkKey(group[j], this.bitLength);
+      } // for
+      getGroup(group, count, nodes, out, start);
+    } // for
+  } // getAll(int[], V[])
+
+  /**
+   * Gets the values for many bit sequences at once, advancing the
+   * lookups through the tree together.
+   *
+   * @param keys the bit sequences.
+   * @param out where to store the values, in the same order.
+   * @throws IllegalArgumentException if out is shorter than keys or a
+   *   character is not a bit.
+   * @throws IndexOutOfBoundsException if a length does not match or a
+   *   key names no value.
+   */
+  @SuppressWarnings("unchecked")
+  public void getAll(String[] keys, V[] out) {
+    if (out.length < keys.length) {
+      throw new IllegalArgumentException("Output array too short.");
+    } // if
+    if (this.bitLength > LONG_BITS) {
+      for (int i = 0; i < keys.length; i++) {
+        out[i] = get(keys[i]);
+      } // for
+      return;
+    } // if
+    long[] group = new long[LOOKUP_GROUP];
+    BitTreeNode<V>[] nodes = (BitTreeNode<V>[]) new BitTreeNode<?>[LOOKUP_GROUP];
+    for (int start = 0; start < keys.length; start += LOOKUP_GROUP) {
+      int count = Math.min(LOOKUP_GROUP, keys.length - start);
+      for (int j = 0; j < count; j++) {
+        group[j] = parseBits(keys[start + j], this.bitLength);
+      } // for
+      getGroup(group, count, nodes, out, start);
+    } // for
+  } // getAll(String[], V[])
+
+  /**
+   * Removes the value for a specific bit sequence, and any interior nodes
+   * that are no longer on the path to a value.
+   *
+   * @param bits the bit sequence.
+   * @return the value removed, or null if there was none.
+   * @throws IndexOutOfBoundsException if the length does not match.
+   * @throws IllegalArgumentException if a character is not a bit.
+   */
+  public V remove(String bits) {
+    if (this.bitLength > LONG_BITS) {
+      return removeAt(0, parseWords(bits, this.bitLength));
+    } // if
+    return removeAt(parseBits(bits, this.bitLength), null);
+  } // remove(String)
+
+  /**
+   * Removes the value for the bit sequence given by the low bitLength
+   * bits of a key, most significant bit first. The key is treated as
+   * unsigned.
+   *
+   * @param key the key.
+   * @return the value removed, or null if there was none.
+   * @throws IndexOutOfBoundsException if the key has more than bitLength
+   *   bits.
+   */
+  public V remove(int key) {
+    return remove(Integer.toUnsignedLong(key));
+  } // remove(int)
+
+  /**
+   * Removes the value for the bit sequence given by the low bitLength
+   * bits of a key, most significant bit first. The key is treated as
+   * unsigned.
+   *
+   * @param key the key.
+   * @return the value removed, or null if there was none.
+   * @throws IndexOutOfBoundsException if the key has more than bitLength
+   *   bits.
+   */
+  public V remove(long key) {
+    checkKey(key, this.bitLength);
+    return removeAt(key, null);
+  } // remove(long)
+
+  /**
+   * Removes the value for the bit sequence given by a BitSet, in which
+   * bit i has weight 2<sup>i</sup>. Works for any bit length.
+   *
+   * @param key the key.
+   * @return the value removed, or null if there was none.
+   * @throws IndexOutOfBoundsException if the key has more than bitLength
+   *   bits.
+   */
+  public V remove(BitSet key) {
+    return removeAt(0, words(key));
+  } // remove(BitSet)
+
+  /**
+   * Rebuilds the tree, dropping leaves whose value is null and any nodes
+   * that then lead nowhere. The new nodes are allocated in key order, so
+   * neighbouring keys tend to share cache lines, which a tree built by
+   * random insertions and removals loses over time.
+   */
+  public void compact() {
+    BitTree<V> copy = new BitTree<>(this.bitLength, this.stride);
+    BitTree<V>.InOrderInserter inserter = copy.new InOrderInserter();
+    walk((path, value) -> {
+      if (value != null) {
+        inserter.add(path, value);
+      } // if
+    });
+    this.root = copy.root;
+    System.arraycopy(copy.levelCounts, 0, this.levelCounts, 0, this.levelCounts.length);
+  } // compact()
+
+  /**
+   * Makes a cursor over all the entries, in key order.
+   *
+   * @return the cursor.
+   */
+  public BitTreeCursor<V> cursor() {
+    return new BitTreeCursor<>(this.bitLength, this.stride, this.root, 0, new char[0], 0,
+        1 << width(0));
+  } // cursor()
+
+  /**
+   * Makes a cursor over the entries whose keys start with some bits, in
+   * key order. Only the subtree under the prefix is visited.
+   *
+   * @param prefix the first bits of the keys wanted; may be empty.
+   * @return the cursor.
+   * @throws IndexOutOfBoundsException if the prefix is longer than the
+   *   keys.
+   * @throws IllegalArgumentException if a character is not a bit.
+   */
+  public BitTreeCursor<V> scanPrefix(String prefix) {
+    if (prefix.length() > this.bitLength) {
       throw new IndexOutOfBoundsException("Bit length mismatch.");
     } // if
-    return getHelper(this.root, bits);
-  } // get(String, String)
+    char[] bits = prefix.toCharArray();
+    for (char bit : bits) {
+      if (bit != '0' && bit != '1') {
+        throw new IllegalArgumentException("Invalid bit: " + bit);
+      } // if
+    } // for
+    BitTreeNode<V> node = this.root;
+    int level = 0;
+    int depth = 0;
+    int width = width(0);
+    while (width > 0 && depth + width <= bits.length) {
+      node = node.getChild(Integer.parseInt(prefix, depth, depth + width, 2));
+      if (node == null) {
+        return new BitTreeCursor<>(this.bitLength, this.stride, null, 0, bits, 0, 0);
+      } // if
+      depth += width;
+      level++;
+      width = width(depth);
+    } // while
+    // Any remaining bits of the prefix pick out a range of children.
+    int rest = bits.length - depth;
+    int lo = (rest == 0) ? 0 : Integer.parseInt(prefix, depth, bits.length, 2) << (width - rest);
+    return new BitTreeCursor<>(this.bitLength, this.stride, node, level, bits, lo,
+        lo + (1 << (width - rest)));
+  } // scanPrefix(String)
+
+  /**
+   * Streams the entries in key order, keyed by bit string. The stream
+   * splits across subtrees, so <code>entries().parallel()</code> visits
+   * different parts of the tree in different threads. The tree must not
+   * be changed while the stream is in use.
+   *
+   * @return the stream.
+   */
+  public Stream<Map.Entry<String, V>> entries() {
+    return StreamSupport.stream(new BitTreeSpliterator<>(this.stride, this.root, 0,
+        new char[this.bitLength], 0, 1 << width(0), size()), false);
+  } // entries()
 
   /**
    * Dumps the tree contents in CSV format.
@@ -172,26 +1009,335 @@ public class BitTree {
    * @param pen the writer to output to.
    */
   public void dump(PrintWriter pen) {
-    dumpHelper(this.root, "", pen);
+    walk((path, value) -> {
+      pen.print(path);
+      pen.print(',');
+      pen.println(value);
+    });
   } // dump(PrintWriter)
 
   /**
-   * Loads mappings from an input stream.
+   * Writes a binary snapshot of the tree, which <code>readFrom</code>
+   * turns back into a tree far faster than <code>load</code> can parse
+   * the CSV that <code>dump</code> prints. Values are written as their
+   * <code>toString</code>, and null values read back as null. The sink is
+   * flushed but not closed.
+   *
+   * @param sink the stream to write to.
+   * @throws RuntimeException if an error occurs while writing.
+   */
+  public void writeTo(OutputStream sink) {
+    writeTo(sink, String::valueOf);
+  } // writeTo(OutputStream)
+
+  /**
+   * Writes a binary snapshot of the tree, converting each value to text
+   * with a formatter. Null values, and values the formatter turns into
+   * null, read back as null. The sink is flushed but not closed.
+   *
+   * @param sink the stream to write to.
+   * @param formatter converts each non-null value into the text to store.
+   * @throws RuntimeException if an error occurs while writing.
+   */
+  public void writeTo(OutputStream sink, Function<? super V, String> formatter) {
+    ByteBuffer snapshot = snapshot(formatter);
+    try {
+      sink.write(snapshot.array(), 0, snapshot.limit());
+      sink.flush();
+    } catch (IOException e) {
+      throw new RuntimeException("Error writing to output stream.", e);
+    } // try/catch
+  } // writeTo(OutputStream, Function)
+
+  /**
+   * Writes a binary snapshot of the tree to a channel, converting each
+   * value to text with a formatter. Null values, and values the formatter
+   * turns into null, read back as null. The channel is not closed.
+   *
+   * @param sink the channel to write to.
+   * @param formatter converts each non-null value into the text to store.
+   * @throws RuntimeException if an error occurs while writing.
+   */
+  public void writeTo(WritableByteChannel sink, Function<? super V, String> formatter) {
+    ByteBuffer snapshot = snapshot(formatter);
+    try {
+      while (snapshot.hasRemaining()) {
+        sink.write(snapshot);
+      } // while
+    } catch (IOException e) {
+      throw new RuntimeException("Error writing to channel.", e);
+    } // try/catch
+  } // writeTo(WritableByteChannel, Function)
+
+  /**
+   * Reads a tree of strings from a binary snapshot written by
+   * <code>writeTo</code>. The source is closed afterwards.
+   *
+   * @param source the stream containing the snapshot.
+   * @return the tree, with the bit length and stride of the one written.
+   * @throws IllegalArgumentException if the stream does not hold a
+   *   snapshot.
+   * @throws RuntimeException if an error occurs while reading.
+   */
+  public static BitTree<String> readFrom(InputStream source) {
+    return readFrom(source, (value) -> value);
+  } // readFrom(InputStream)
+
+  /**
+   * Reads a tree from a binary snapshot written by <code>writeTo</code>,
+   * converting each value with a parser. The source is closed afterwards.
+   *
+   * @param <V> the type of values in the tree.
+   * @param source the stream containing the snapshot.
+   * @param parser converts the stored text into a value; null values
+   *   stay null without it.
+   * @return the tree, with the bit length and stride of the one written.
+   * @throws IllegalArgumentException if the stream does not hold a
+   *   snapshot.
+   * @throws RuntimeException if an error occurs while reading.
+   */
+  public static <V> BitTree<V> readFrom(InputStream source,
+      Function<String, ? extends V> parser) {
+    try (InputStream in = source) {
+      return fromSnapshot(new BitTreeSnapshot(ByteBuffer.wrap(in.readAllBytes())), parser);
+    } catch (IOException e) {
+      throw new RuntimeException("Error reading from input stream.", e);
+    } // try/catch
+  } // readFrom(InputStream, Function)
+
+  /**
+   * Reads a tree from a binary snapshot in a channel, converting each
+   * value with a parser. The channel is closed afterwards.
+   *
+   * @param <V> the type of values in the tree.
+   * @param source the channel containing the snapshot.
+   * @param parser converts the stored text into a value; null values
+   *   stay null without it.
+   * @return the tree, with the bit length and stride of the one written.
+   * @throws IllegalArgumentException if the channel does not hold a
+   *   snapshot.
+   * @throws RuntimeException if an error occurs while reading.
+   */
+  public static <V> BitTree<V> readFrom(ReadableByteChannel source,
+      Function<String, ? extends V> parser) {
+    return readFrom(Channels.newInputStream(source), parser);
+  } // readFrom(ReadableByteChannel, Function)
+
+  /**
+   * Gets the number of values in the tree.
+   *
+   * @return the number of values.
+   */
+  public long size() {
+    return this.levelCounts[this.levelCounts.length - 1];
+  } // size()
+
+  /**
+   * Summarizes the shape and approximate footprint of the tree. The
+   * counts are kept as the tree grows, so this takes time proportional
+   * to the depth of the tree, not its size.
+   *
+   * @return the statistics.
+   */
+  public BitTreeStats stats() {
+    int[] fanouts = new int[this.levelCounts.length];
+    for (int level = 0; level < fanouts.length - 1; level++) {
+      fanouts[level] = 1 << Math.max(width(Math.min(level * this.stride, this.bitLength)), 1);
+    } // for
+    return new BitTreeStats(this.levelCounts, fanouts);
+  } // stats()
+
+  /**
+   * Makes an immutable copy of this tree that stores its values in a flat
+   * array indexed by key, so that each lookup is a single array load.
+   * Later changes to this tree do not affect the copy.
+   *
+   * @return the frozen copy.
+   * @throws IllegalStateException if the tree has more than
+   *   DenseBitTree.MAX_BIT_LENGTH bits.
+   */
+  public DenseBitTree<V> freeze() {
+    if (this.bitLength > DenseBitTree.MAX_BIT_LENGTH) {
+      throw new IllegalStateException("Tree is too deep to freeze.");
+    } // if
+    int size = 1 << this.bitLength;
+    Object[] values = new Object[size];
+    long[] present = new long[(size + Long.SIZE - 1) / Long.SIZE];
+    if (this.bitLength == 0) {
+      return new DenseBitTree<>(0, values, present);
+    } // if
+    freezeHelper(this.root, 0, 0, values, present);
+    return new DenseBitTree<>(this.bitLength, values, present);
+  } // freeze()
+
+  /**
+   * Loads mappings from an input stream, storing each value as the
+   * String that follows the comma. Only suitable for a
+   * <code>BitTree&lt;String&gt;</code>; other trees should supply a parser.
    *
    * @param source the input stream containing bit-value pairs.
    * @throws RuntimeException if an error occurs while reading the stream.
    */
+  @SuppressWarnings("unchecked")
   public void load(InputStream source) {
-    try (BufferedReader reader = new BufferedReader(new InputStreamReader(source))) {
-      String line;
-      while ((line = reader.readLine()) != null) {
-        String[] parts = line.split(",", 2);
-        if (parts.length == 2) {
-          set(parts[0], parts[1]);
+    load(source, (value) -> (V) value);
+  } // load(InputStream)
+
+  /**
+   * Loads mappings from an input stream, converting each value with a
+   * parser, so that the work of parsing is done once rather than on
+   * every lookup.
+   *
+   * @param source the input stream containing bit-value pairs.
+   * @param parser converts the text after the comma into a value.
+   * @throws RuntimeException if an error occurs while reading the stream.
+   */
+  public void load(InputStream source, Function<String, ? extends V> parser) {
+    load(source, parser, null);
+  } // load(InputStream, Function)
+
+  /**
+   * Loads mappings from an input stream, converting each value with a
+   * parser. Lines are parsed straight from the bytes of the stream, and
+   * each key is inserted starting from the deepest node it shares with
+   * the previous key, so input sorted by key loads fastest.
+   *
+   * @param source the input stream containing bit-value pairs.
+   * @param parser converts the text after the comma into a value.
+   * @param malformed if not null, is given the text and (1-based) line
+   *   number of each nonblank line that lacks a comma or has a bad key,
+   *   and the line is skipped. If null, lines without a comma are
+   *   skipped and bad keys throw, just as in <code>set</code>.
+   * @throws RuntimeException if an error occurs while reading the stream.
+   */
+  @SuppressWarnings("unchecked")
+  public void load(InputStream source, Function<String, ? extends V> parser,
+      ObjIntConsumer<String> malformed) {
+    BitTreeNode<V>[] path = (BitTreeNode<V>[]) new BitTreeNode<?>[levels() + 1];
+    path[0] = this.root;
+    long previous = 0;
+    boolean hasPrevious = false;
+    byte[] buffer = new byte[LOAD_BUFFER_SIZE];
+    int filled = 0;
+    int lineNumber = 0;
+    try (InputStream in = source) {
+      boolean done = false;
+      while (!done) {
+        int count = in.read(buffer, filled, buffer.length - filled);
+        if (count < 0) {
+          done = true;
+        } else {
+          filled += count;
+        } // if/else
+        int start = 0;
+        while (start < filled) {
+          int end = start;
+          while (end < filled && buffer[end] != '\n') {
+            end++;
+          } // while
+          if (end == filled && !done) {
+            break;
+          } // if
+          lineNumber++;
+          int lineEnd = (end > start && buffer[end - 1] == '\r') ? end - 1 : end;
+          int comma = start;
+          while (comma < lineEnd && buffer[comma] != ',') {
+            comma++;
+          } // while
+          if (comma == lineEnd) {
+            if (malformed != null && lineEnd > start) {
+              malformed.accept(new String(buffer, start, lineEnd - start, UTF_8), lineNumber);
+            } // if
+          } else {
+            try {
+              V value = parser.apply(new String(buffer, comma + 1, lineEnd - comma - 1, UTF_8));
+              if (this.bitLength > LONG_BITS) {
+                set(new String(buffer, start, comma - start, UTF_8), value);
+              } else {
+                long key = parseKey(buffer, start, comma);
+                int level = 0;
+                if (hasPrevious) {
+                  level = sharedLevels(previous, key);
+                } // if
+                setFrom(path, level, key, value);
+                previous = key;
+                hasPrevious = true;
+              } // if/else
+            } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+              if (malformed == null) {
+                throw e;
+              } // if
+              malformed.accept(new String(buffer, start, lineEnd - start, UTF_8), lineNumber);
+            } // try/catch
+          } // if/else
+          start = end + 1;
+        } // while
+        if (start < filled) {
+          System.arraycopy(buffer, start, buffer, 0, filled - start);
+          filled -= start;
+        } else {
+          filled = 0;
+        } // if/else
+        if (filled == buffer.length) {
+          buffer = Arrays.copyOf(buffer, 2 * buffer.length);
         } // if
       } // while
     } catch (IOException e) {
       throw new RuntimeException("Error reading from input stream.", e);
     } // try/catch
-  } // load(InputStream)
+  } // load(InputStream, Function, ObjIntConsumer)
+
+  // +---------------+-----------------------------------------------
+  // | Inner classes |
+  // +---------------+
+
+  /**
+   * Inserts entries that arrive in key order, starting each insertion at
+   * the deepest node it shares with the previous one.
+   */
+  private class InOrderInserter {
+    /**
+     * The nodes on the path to the previous entry.
+     */
+    private final BitTreeNode<V>[] path;
+
+    /**
+     * The previous key.
+     */
+    private long previous;
+
+    /**
+     * Whether any entry has been inserted.
+     */
+    private boolean started;
+
+    /**
+     * Starts inserting at the root.
+     */
+    @SuppressWarnings("unchecked")
+    InOrderInserter() {
+      this.path = (BitTreeNode<V>[]) new BitTreeNode<?>[levels() + 1];
+      this.path[0] = BitTree.this.root;
+    } // InOrderInserter()
+
+    /**
+     * Inserts an entry whose key follows the previous one.
+     *
+     * @param bits the key, as '0' and '1' characters.
+     * @param value the value.
+     */
+    void add(char[] bits, V value) {
+      if (bitLength > LONG_BITS) {
+        set(new String(bits), value);
+        return;
+      } // if
+      long key = 0;
+      for (char bit : bits) {
+        key = (key << 1) | (bit - '0');
+      } // for
+      setFrom(this.path, this.started ? sharedLevels(this.previous, key) : 0, key, value);
+      this.previous = key;
+      this.started = true;
+    } // add(char[], V)
+  } // class InOrderInserter
 } // class BitTree
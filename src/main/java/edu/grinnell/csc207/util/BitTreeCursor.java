@@ -0,0 +1,215 @@
+package edu.grinnell.csc207.util;
+
+/**
+ * A cursor over the entries of a BitTree (or of one of its subtrees), in
+ * key order. Moving the cursor allocates nothing; the key is kept as
+ * characters and only turned into a String or long when asked for.
+ *
+ * <pre>
+ *   BitTreeCursor&lt;String&gt; cursor = tree.cursor();
+ *   while (cursor.advance()) {
+ *     use(cursor.keyBits(), cursor.value());
+ *   }
+ * </pre>
+ *
+ * The tree must not be changed while a cursor is in use.
+ *
+ * @param <V> the type of values stored in the tree.
+ *
+ * @author Nicole Moreno Gonzalez
+ */
+public class BitTreeCursor<V> {
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The length of the keys.
+   */
+  private final int bitLength;
+
+  /**
+   * The number of bits consumed by each level of interior nodes.
+   */
+  private final int stride;
+
+  /**
+   * The level of the node the cursor starts from.
+   */
+  private final int startLevel;
+
+  /**
+   * The nodes on the path to the current entry, by level.
+   */
+  private final BitTreeNode<V>[] nodes;
+
+  /**
+   * The next child to visit at each level.
+   */
+  private final int[] next;
+
+  /**
+   * One past the last child to visit at each level.
+   */
+  private final int[] limit;
+
+  /**
+   * The key of the current entry, as '0' and '1' characters.
+   */
+  private final char[] path;
+
+  /**
+   * The level of the deepest node on the path; below startLevel once the
+   * cursor is exhausted.
+   */
+  private int level;
+
+  /**
+   * Whether the cursor is on an entry.
+   */
+  private boolean onLeaf;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Builds a cursor over some of the children of a node.
+   *
+   * @param bitLength the length of the keys.
+   * @param stride the stride of the tree.
+   * @param start the node to start from, or null for an empty cursor.
+   * @param startLevel the level of that node.
+   * @param prefix the bits on the path to the node, and any bits of its
+   *   children fixed by a prefix; copied.
+   * @param lo the first child of the node to visit.
+   * @param hi one past the last child of the node to visit.
+   */
+  @SuppressWarnings("unchecked")
+  BitTreeCursor(int bitLength, int stride, BitTreeNode<V> start, int startLevel, char[] prefix,
+      int lo, int hi) {
+    int levels = (bitLength + stride - 1) / stride + 1;
+    this.bitLength = bitLength;
+    this.stride = stride;
+    this.startLevel = startLevel;
+    this.nodes = (BitTreeNode<V>[]) new BitTreeNode<?>[levels];
+    this.next = new int[levels];
+    this.limit = new int[levels];
+    this.path = new char[bitLength];
+    System.arraycopy(prefix, 0, this.path, 0, Math.min(prefix.length, bitLength));
+    this.nodes[startLevel] = start;
+    this.next[startLevel] = lo;
+    this.limit[startLevel] = hi;
+    this.level = (start == null) ? startLevel - 1 : startLevel;
+  } // BitTreeCursor(...)
+
+  // +---------------+-----------------------------------------------
+  // | Local helpers |
+  // +---------------+
+
+  /**
+   * Gets the number of bits consumed above the nodes on a level.
+   *
+   * @param level the level.
+   * @return the depth.
+   */
+  private int depth(int level) {
+    return Math.min(level * this.stride, this.bitLength);
+  } // depth(int)
+
+  /**
+   * Ensures that the cursor is on an entry.
+   *
+   * @throws IllegalStateException if it is not.
+   */
+  private void checkOnLeaf() {
+    if (!this.onLeaf) {
+      throw new IllegalStateException("No current entry.");
+    } // if
+  } // checkOnLeaf()
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Moves to the next entry.
+   *
+   * @return true if there is one, false if the cursor is exhausted.
+   */
+  public boolean advance() {
+    if (this.onLeaf) {
+      this.onLeaf = false;
+      this.level--;
+    } // if
+    while (this.level >= this.startLevel) {
+      BitTreeNode<V> node = this.nodes[this.level];
+      if (node.isLeaf()) {
+        this.onLeaf = true;
+        return true;
+      } // if
+      int depth = depth(this.level);
+      int width = Math.min(this.stride, this.bitLength - depth);
+      int i = this.next[this.level];
+      while (i < this.limit[this.level] && node.getChild(i) == null) {
+        i++;
+      } // while
+      if (i >= this.limit[this.level]) {
+        this.level--;
+        continue;
+      } // if
+      this.next[this.level] = i + 1;
+      for (int b = 0; b < width; b++) {
+        this.path[depth + b] = (char) ('0' + ((i >>> (width - 1 - b)) & 1));
+      } // for
+      this.level++;
+      this.nodes[this.level] = node.getChild(i);
+      this.next[this.level] = 0;
+      this.limit[this.level] = 1 << Math.min(this.stride, this.bitLength - depth - width);
+    } // while
+    return false;
+  } // advance()
+
+  /**
+   * Gets the key of the current entry.
+   *
+   * @return the key, as a bit string.
+   * @throws IllegalStateException if the cursor is not on an entry.
+   */
+  public String key() {
+    checkOnLeaf();
+    return new String(this.path);
+  } // key()
+
+  /**
+   * Gets the key of the current entry as a number, most significant bit
+   * first, without allocating.
+   *
+   * @return the key.
+   * @throws IllegalStateException if the cursor is not on an entry, or
+   *   the keys are longer than 64 bits.
+   */
+  public long keyBits() {
+    checkOnLeaf();
+    if (this.bitLength > BitTree.LONG_BITS) {
+      throw new IllegalStateException("Keys longer than 64 bits require key().");
+    } // if
+    long key = 0;
+    for (char bit : this.path) {
+      key = (key << 1) | (bit - '0');
+    } // for
+    return key;
+  } // keyBits()
+
+  /**
+   * Gets the value of the current entry.
+   *
+   * @return the value.
+   * @throws IllegalStateException if the cursor is not on an entry.
+   */
+  public V value() {
+    checkOnLeaf();
+    return this.nodes[this.level].getValue();
+  } // value()
+} // class BitTreeCursor
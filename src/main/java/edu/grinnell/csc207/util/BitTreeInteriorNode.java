@@ -3,9 +3,11 @@ package edu.grinnell.csc207.util;
 /**
  * A class representing an interior node in a BitTree.
  *
+ * @param <V> the type of values stored in the tree.
+ *
  * @author Nicole Moreno Gonzalez
  */
-public class BitTreeInteriorNode implements BitTreeNode {
+public class BitTreeInteriorNode<V> implements BitTreeNode<V> {
 
   // +--------+------------------------------------------------------
   // | Fields |
@@ -14,12 +16,12 @@ public class BitTreeInteriorNode implements BitTreeNode {
   /**
    * The left child of this interior node.
    */
-  private BitTreeNode left;
+  private BitTreeNode<V> left;
 
   /**
    * The right child of this interior node.
    */
-  private BitTreeNode right;
+  private BitTreeNode<V> right;
 
   // +--------------+------------------------------------------------
   // | Constructors |
@@ -39,7 +41,7 @@ public class BitTreeInteriorNode implements BitTreeNode {
    * @param left the left child of this node.
    * @param right the right child of this node.
    */
-  public BitTreeInteriorNode(BitTreeNode left, BitTreeNode right) {
+  public BitTreeInteriorNode(BitTreeNode<V> left, BitTreeNode<V> right) {
     this.left = left;
     this.right = right;
   } // BitTreeInteriorNode
@@ -53,7 +55,7 @@ public class BitTreeInteriorNode implements BitTreeNode {
    *
    * @return the left child, or null if no child exists.
    */
-  public BitTreeNode getLeft() {
+  public BitTreeNode<V> getLeft() {
     return this.left;
   } // getLeft
 
@@ -62,7 +64,7 @@ public class BitTreeInteriorNode implements BitTreeNode {
    *
    * @param left the left child to set.
    */
-  public void setLeft(BitTreeNode left) {
+  public void setLeft(BitTreeNode<V> left) {
     this.left = left;
   } // setLeft
 
@@ -71,7 +73,7 @@ public class BitTreeInteriorNode implements BitTreeNode {
    *
    * @return the right child, or null if no child exists.
    */
-  public BitTreeNode getRight() {
+  public BitTreeNode<V> getRight() {
     return this.right;
   } // getRight
 
@@ -80,7 +82,7 @@ public class BitTreeInteriorNode implements BitTreeNode {
    *
    * @param right the right child to set.
    */
-  public void setRight(BitTreeNode right) {
+  public void setRight(BitTreeNode<V> right) {
     this.right = right;
   } // setRight
 
@@ -101,7 +103,7 @@ public class BitTreeInteriorNode implements BitTreeNode {
    * @throws UnsupportedOperationException
    */
   @Override
-  public String getValue() {
+  public V getValue() {
     throw new UnsupportedOperationException("Interior nodes do not have values.");
   } // getValue
 
@@ -112,7 +114,33 @@ public class BitTreeInteriorNode implements BitTreeNode {
    * @throws UnsupportedOperationException
    */
   @Override
-  public void setValue(String value) {
+  public void setValue(V value) {
     throw new UnsupportedOperationException("Interior nodes do not store values.");
   } // getValue
+
+  /**
+   * Gets a child of this node.
+   *
+   * @param index 0 for the left child or 1 for the right child.
+   * @return the child, or null if no child exists.
+   */
+  @Override
+  public BitTreeNode<V> getChild(int index) {
+    return (index == 0) ? this.left : this.right;
+  } // getChild
+
+  /**
+   * Sets a child of this node.
+   *
+   * @param index 0 for the left child or 1 for the right child.
+   * @param child the child to set.
+   */
+  @Override
+  public void setChild(int index, BitTreeNode<V> child) {
+    if (index == 0) {
+      this.left = child;
+    } else {
+      this.right = child;
+    } // if/else
+  } // setChild
 } // class BitTreeInteriorNode
@@ -3,9 +3,11 @@ package edu.grinnell.csc207.util;
 /**
  * A class representing a leaf node in a BitTree.
  *
+ * @param <V> the type of values stored in the tree.
+ *
  * @author Nicole Moreno Gonzalez
  */
-public class BitTreeLeaf implements BitTreeNode {
+public class BitTreeLeaf<V> implements BitTreeNode<V> {
 
   // +--------+------------------------------------------------------
   // | Fields |
@@ -14,7 +16,7 @@ public class BitTreeLeaf implements BitTreeNode {
   /**
    * The value stored in this leaf node.
    */
-  private String value;
+  private V value;
 
   // +--------------+------------------------------------------------
   // | Constructors |
@@ -32,7 +34,7 @@ public class BitTreeLeaf implements BitTreeNode {
    *
    * @param value the value to store in this leaf node.
    */
-  public BitTreeLeaf(String value) {
+  public BitTreeLeaf(V value) {
     this.value = value;
   } // BitTreeLeaf
 
@@ -56,7 +58,7 @@ public class BitTreeLeaf implements BitTreeNode {
    * @return the value stored in this node.
    */
   @Override
-  public String getValue() {
+  public V getValue() {
     return this.value;
   } // getValue
 
@@ -66,7 +68,31 @@ public class BitTreeLeaf implements BitTreeNode {
    * @param value the value to store.
    */
   @Override
-  public void setValue(String value) {
+  public void setValue(V value) {
     this.value = value;
   } // setValue
+
+  /**
+   * Gets a child of this node.
+   *
+   * @param index the bits leading to the child (ignored).
+   * @return nothing, as leaves have no children.
+   * @throws UnsupportedOperationException
+   */
+  @Override
+  public BitTreeNode<V> getChild(int index) {
+    throw new UnsupportedOperationException("Leaves do not have children.");
+  } // getChild
+
+  /**
+   * Sets a child of this node.
+   *
+   * @param index the bits leading to the child (ignored).
+   * @param child the child (ignored).
+   * @throws UnsupportedOperationException
+   */
+  @Override
+  public void setChild(int index, BitTreeNode<V> child) {
+    throw new UnsupportedOperationException("Leaves do not have children.");
+  } // setChild
 } // class BitTreeLeaf
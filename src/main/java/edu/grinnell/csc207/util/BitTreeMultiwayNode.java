@@ -0,0 +1,103 @@
+package edu.grinnell.csc207.util;
+
+/**
+ * A class representing an interior node in a BitTree that consumes
+ * several bits at once, and so has one child for each combination of
+ * those bits.
+ *
+ * @param <V> the type of values stored in the tree.
+ *
+ * @author Nicole Moreno Gonzalez
+ */
+public class BitTreeMultiwayNode<V> implements BitTreeNode<V> {
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The children of this node, indexed by the bits that lead to them.
+   */
+  private final BitTreeNode<V>[] children;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Constructs an empty interior node with no children.
+   *
+   * @param width the number of bits this node consumes.
+   */
+  @SuppressWarnings("unchecked")
+  public BitTreeMultiwayNode(int width) {
+    this.children = (BitTreeNode<V>[]) new BitTreeNode<?>[1 << width];
+  } // BitTreeMultiwayNode
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Gets the number of children this node can have.
+   *
+   * @return the number of children.
+   */
+  public int fanout() {
+    return this.children.length;
+  } // fanout
+
+  /**
+   * Gets a child of this node.
+   *
+   * @param index the bits leading to the child.
+   * @return the child, or null if no child exists.
+   */
+  @Override
+  public BitTreeNode<V> getChild(int index) {
+    return this.children[index];
+  } // getChild
+
+  /**
+   * Sets a child of this node.
+   *
+   * @param index the bits leading to the child.
+   * @param child the child to set.
+   */
+  @Override
+  public void setChild(int index, BitTreeNode<V> child) {
+    this.children[index] = child;
+  } // setChild
+
+  /**
+   * Indicates whether this node is a leaf.
+   *
+   * @return false, as interior nodes are not leaves.
+   */
+  @Override
+  public boolean isLeaf() {
+    return false;
+  } // isLeaf
+
+  /**
+   * Gets the value of this node.
+   *
+   * @return nothing, as interior nodes do not store values.
+   * @throws UnsupportedOperationException
+   */
+  @Override
+  public V getValue() {
+    throw new UnsupportedOperationException("Interior nodes do not have values.");
+  } // getValue
+
+  /**
+   * Sets the value of this node.
+   *
+   * @param value the value to set (ignored, as this node does not store values).
+   * @throws UnsupportedOperationException
+   */
+  @Override
+  public void setValue(V value) {
+    throw new UnsupportedOperationException("Interior nodes do not store values.");
+  } // setValue
+} // class BitTreeMultiwayNode
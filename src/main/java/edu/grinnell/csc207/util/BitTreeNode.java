@@ -3,9 +3,11 @@ package edu.grinnell.csc207.util;
 /**
  * An interface for nodes in a BitTree.
  *
+ * @param <V> the type of values stored in the tree.
+ *
  * @author Nicole Moreno Gonzalez
  */
-public interface BitTreeNode {
+public interface BitTreeNode<V> {
 
   // +---------+-----------------------------------------------------
   // | Methods |
@@ -23,7 +25,7 @@ public interface BitTreeNode {
    *
    * @return the value stored in the node, or null if the node is not a leaf.
    */
-  String getValue();
+  V getValue();
 
   /**
    * Sets the value of the node if it is a leaf.
@@ -31,5 +33,25 @@ public interface BitTreeNode {
    * @param value the value to set.
    * @throws UnsupportedOperationException if the node is not a leaf.
    */
-  void setValue(String value);
+  void setValue(V value);
+
+  /**
+   * Gets one of the children of the node if it is an interior node.
+   * Children are numbered by the bits that lead to them, so a binary
+   * node has children 0 (left) and 1 (right).
+   *
+   * @param index the bits leading to the child.
+   * @return the child, or null if there is none.
+   * @throws UnsupportedOperationException if the node is a leaf.
+   */
+  BitTreeNode<V> getChild(int index);
+
+  /**
+   * Sets one of the children of the node if it is an interior node.
+   *
+   * @param index the bits leading to the child.
+   * @param child the new child.
+   * @throws UnsupportedOperationException if the node is a leaf.
+   */
+  void setChild(int index, BitTreeNode<V> child);
 } // interace BitTreeNode
@@ -0,0 +1,317 @@
+package edu.grinnell.csc207.util;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The binary snapshot format for BitTrees: a flattened binary tree that
+ * can be read straight from a buffer without rebuilding any nodes. All
+ * numbers are big-endian ints.
+ *
+ * <pre>
+ *   magic "BTRE", version, bitLength, stride, nodeCount, leafCount
+ *   children   two per interior node (node 0 is the root): 0 if absent,
+ *              n &gt; 0 for interior node n, -(i + 1) for leaf i
+ *   offsets    leafCount + 1 offsets into the pool; leaf i's value is
+ *              bytes offsets[i] up to offsets[i + 1], or null if the
+ *              top bit of offsets[i + 1] is set (version 2 on)
+ *   pool       the values, in UTF-8, leaves in key order
+ * </pre>
+ *
+ * @author Nicole Moreno Gonzalez
+ */
+final class BitTreeSnapshot {
+
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The first four bytes of every snapshot, "BTRE".
+   */
+  static final int MAGIC = 0x42545245;
+
+  /**
+   * The version of the format written.
+   */
+  static final int VERSION = 2;
+
+  /**
+   * The bit of an end offset that marks a null value.
+   */
+  private static final int NULL_FLAG = Integer.MIN_VALUE;
+
+  /**
+   * The number of bytes before the child links.
+   */
+  static final int HEADER_BYTES = 6 * Integer.BYTES;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The snapshot, read with absolute indices only.
+   */
+  private final ByteBuffer buffer;
+
+  /**
+   * The length of the keys.
+   */
+  final int bitLength;
+
+  /**
+   * The stride of the tree that was written.
+   */
+  final int stride;
+
+  /**
+   * The number of interior nodes.
+   */
+  final int nodeCount;
+
+  /**
+   * The number of leaves.
+   */
+  final int leafCount;
+
+  /**
+   * Where the value offsets start.
+   */
+  private final int offsetsStart;
+
+  /**
+   * Where the value pool starts.
+   */
+  private final int poolStart;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Reads the header of a snapshot.
+   *
+   * @param buffer the snapshot, starting at index 0.
+   * @throws IllegalArgumentException if the buffer does not hold a
+   *   snapshot of this version or an earlier one.
+   */
+  BitTreeSnapshot(ByteBuffer buffer) {
+    if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+      throw new IllegalArgumentException("Not a BitTree snapshot.");
+    } // if
+    if (buffer.getInt(Integer.BYTES) < 1 || buffer.getInt(Integer.BYTES) > VERSION) {
+      throw new IllegalArgumentException("Unsupported snapshot version: "
+          + buffer.getInt(Integer.BYTES));
+    } // if
+    this.buffer = buffer;
+    this.bitLength = buffer.getInt(2 * Integer.BYTES);
+    this.stride = buffer.getInt(3 * Integer.BYTES);
+    this.nodeCount = buffer.getInt(4 * Integer.BYTES);
+    this.leafCount = buffer.getInt(5 * Integer.BYTES);
+    this.offsetsStart = HEADER_BYTES + 2 * this.nodeCount * Integer.BYTES;
+    this.poolStart = this.offsetsStart + (this.leafCount + 1) * Integer.BYTES;
+    if (this.bitLength < 0 || this.nodeCount < 1 || this.leafCount < 0
+        || this.poolStart < 0 || this.poolStart > buffer.limit()
+        || this.poolStart + offset(this.leafCount) > buffer.limit()) {
+      throw new IllegalArgumentException("Corrupt BitTree snapshot.");
+    } // if
+  } // BitTreeSnapshot(ByteBuffer)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Gets one link of an interior node.
+   *
+   * @param node the node.
+   * @param bit 0 for the left link, 1 for the right.
+   * @return 0 if absent, a positive node index, or -(leaf index + 1).
+   * @throws IllegalArgumentException if the link is out of range.
+   */
+  int child(int node, int bit) {
+    int link = this.buffer.getInt(HEADER_BYTES + (2 * node + bit) * Integer.BYTES);
+    if (link >= this.nodeCount || link < -this.leafCount) {
+      throw new IllegalArgumentException("Corrupt BitTree snapshot.");
+    } // if
+    return link;
+  } // child(int, int)
+
+  /**
+   * Gets the value of a leaf.
+   *
+   * @param leaf the leaf index.
+   * @return the value, which may be null.
+   */
+  String value(int leaf) {
+    if ((this.buffer.getInt(this.offsetsStart + (leaf + 1) * Integer.BYTES) & NULL_FLAG) != 0) {
+      return null;
+    } // if
+    int start = offset(leaf);
+    int length = offset(leaf + 1) - start;
+    byte[] bytes = new byte[length];
+    this.buffer.get(this.poolStart + start, bytes);
+    return new String(bytes, UTF_8);
+  } // value(int)
+
+  /**
+   * Gets the pool offset of a leaf's value.
+   *
+   * @param leaf the leaf index.
+   * @return the offset.
+   */
+  private int offset(int leaf) {
+    return this.buffer.getInt(this.offsetsStart + leaf * Integer.BYTES) & ~NULL_FLAG;
+  } // offset(int)
+
+  // +---------------+-----------------------------------------------
+  // | Inner classes |
+  // +---------------+
+
+  /**
+   * Builds a snapshot from leaves given in key order.
+   */
+  static final class Builder {
+    /**
+     * The length of the keys.
+     */
+    private final int bitLength;
+
+    /**
+     * The stride to record.
+     */
+    private final int stride;
+
+    /**
+     * The child links, two per interior node.
+     */
+    private int[] children = new int[16];
+
+    /**
+     * The number of interior nodes.
+     */
+    private int nodeCount = 1;
+
+    /**
+     * The end offset of each value, with NULL_FLAG set for null values;
+     * offsets[0] is 0.
+     */
+    private int[] offsets = new int[16];
+
+    /**
+     * The number of leaves.
+     */
+    private int leafCount;
+
+    /**
+     * The value bytes.
+     */
+    private byte[] pool = new byte[256];
+
+    /**
+     * The interior nodes on the path to the previous leaf.
+     */
+    private final int[] nodes;
+
+    /**
+     * The path to the previous leaf.
+     */
+    private final char[] previous;
+
+    /**
+     * Starts an empty snapshot.
+     *
+     * @param bitLength the length of the keys.
+     * @param stride the stride to record.
+     */
+    Builder(int bitLength, int stride) {
+      this.bitLength = bitLength;
+      this.stride = stride;
+      this.nodes = new int[Math.max(bitLength, 1)];
+      this.previous = new char[bitLength];
+    } // Builder(int, int)
+
+    /**
+     * Adds a leaf, which must come after all those added before.
+     *
+     * @param path the key, as '0' and '1' characters.
+     * @param value the value, which may be null.
+     * @throws IllegalStateException if the key is out of order.
+     */
+    void add(char[] path, String value) {
+      int depth = 0;
+      if (this.leafCount > 0) {
+        while (depth < this.bitLength && path[depth] == this.previous[depth]) {
+          depth++;
+        } // while
+        if (depth == this.bitLength || path[depth] < this.previous[depth]) {
+          throw new IllegalStateException("Keys out of order.");
+        } // if
+      } // if
+      while (depth < this.bitLength - 1) {
+        int node = this.nodeCount++;
+        link(this.nodes[depth], path[depth], node);
+        this.nodes[++depth] = node;
+      } // while
+      link(this.nodes[this.bitLength - 1], path[this.bitLength - 1], -(this.leafCount + 1));
+      System.arraycopy(path, 0, this.previous, 0, this.bitLength);
+
+      byte[] bytes = (value == null) ? new byte[0] : value.getBytes(UTF_8);
+      int start = poolSize();
+      if (this.leafCount + 2 > this.offsets.length) {
+        this.offsets = Arrays.copyOf(this.offsets, 2 * this.offsets.length);
+      } // if
+      if (start + bytes.length > this.pool.length) {
+        this.pool = Arrays.copyOf(this.pool, Math.max(2 * this.pool.length,
+            start + bytes.length));
+      } // if
+      System.arraycopy(bytes, 0, this.pool, start, bytes.length);
+      this.offsets[++this.leafCount] = (start + bytes.length) | ((value == null) ? NULL_FLAG : 0);
+    } // add(char[], String)
+
+    /**
+     * Gets the number of value bytes so far.
+     *
+     * @return the number of bytes.
+     */
+    private int poolSize() {
+      return this.offsets[this.leafCount] & ~NULL_FLAG;
+    } // poolSize()
+
+    /**
+     * Sets one link of an interior node.
+     *
+     * @param node the node.
+     * @param bit the bit, '0' or '1'.
+     * @param link the link.
+     */
+    private void link(int node, char bit, int link) {
+      if (2 * this.nodeCount > this.children.length) {
+        this.children = Arrays.copyOf(this.children, 2 * this.children.length);
+      } // if
+      this.children[2 * node + (bit - '0')] = link;
+    } // link(int, char, int)
+
+    /**
+     * Lays out the snapshot.
+     *
+     * @return a buffer holding the snapshot, ready to be written.
+     */
+    ByteBuffer build() {
+      int size = HEADER_BYTES + 2 * this.nodeCount * Integer.BYTES
+          + (this.leafCount + 1) * Integer.BYTES + poolSize();
+      ByteBuffer out = ByteBuffer.allocate(size);
+      out.putInt(MAGIC).putInt(VERSION).putInt(this.bitLength).putInt(this.stride)
+          .putInt(this.nodeCount).putInt(this.leafCount);
+      out.asIntBuffer().put(this.children, 0, 2 * this.nodeCount);
+      out.position(out.position() + 2 * this.nodeCount * Integer.BYTES);
+      out.asIntBuffer().put(this.offsets, 0, this.leafCount + 1);
+      out.position(out.position() + (this.leafCount + 1) * Integer.BYTES);
+      out.put(this.pool, 0, poolSize());
+      return out.flip();
+    } // build()
+  } // class Builder
+} // class BitTreeSnapshot
@@ -0,0 +1,192 @@
+package edu.grinnell.csc207.util;
+
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A spliterator over the entries of a BitTree, in key order. It splits
+ * by dividing the children of a node between two spliterators, first
+ * descending past any node with a single child, so that parallel streams
+ * fan out across subtrees. The tree must not be changed while it is in
+ * use.
+ *
+ * @param <V> the type of values stored in the tree.
+ *
+ * @author Nicole Moreno Gonzalez
+ */
+class BitTreeSpliterator<V> implements Spliterator<Map.Entry<String, V>> {
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The length of the keys.
+   */
+  private final int bitLength;
+
+  /**
+   * The number of bits consumed by each level of interior nodes.
+   */
+  private final int stride;
+
+  /**
+   * The node whose children this spliterator covers.
+   */
+  private BitTreeNode<V> node;
+
+  /**
+   * The level of that node.
+   */
+  private int level;
+
+  /**
+   * The bits on the path to the node.
+   */
+  private final char[] prefix;
+
+  /**
+   * The first child covered.
+   */
+  private int lo;
+
+  /**
+   * One past the last child covered.
+   */
+  private int hi;
+
+  /**
+   * The estimated number of entries covered.
+   */
+  private long estimate;
+
+  /**
+   * The cursor, once traversal has begun.
+   */
+  private BitTreeCursor<V> cursor;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Builds a spliterator over some of the children of a node.
+   *
+   * @param stride the stride of the tree.
+   * @param node the node.
+   * @param level the level of the node.
+   * @param prefix room for a whole key, starting with the bits on the
+   *   path to the node; not copied.
+   * @param lo the first child covered.
+   * @param hi one past the last child covered.
+   * @param estimate the estimated number of entries covered.
+   */
+  BitTreeSpliterator(int stride, BitTreeNode<V> node, int level, char[] prefix, int lo, int hi,
+      long estimate) {
+    this.bitLength = prefix.length;
+    this.stride = stride;
+    this.node = node;
+    this.level = level;
+    this.prefix = prefix;
+    this.lo = lo;
+    this.hi = hi;
+    this.estimate = estimate;
+  } // BitTreeSpliterator(...)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Passes the next entry to an action.
+   *
+   * @param action the action.
+   * @return true if there was an entry.
+   */
+  @Override
+  public boolean tryAdvance(Consumer<? super Map.Entry<String, V>> action) {
+    if (this.cursor == null) {
+      this.cursor = new BitTreeCursor<>(this.bitLength, this.stride, this.node, this.level,
+          this.prefix, this.lo, this.hi);
+    } // if
+    if (!this.cursor.advance()) {
+      return false;
+    } // if
+    action.accept(new AbstractMap.SimpleImmutableEntry<>(this.cursor.key(),
+        this.cursor.value()));
+    return true;
+  } // tryAdvance(Consumer)
+
+  /**
+   * Splits off the first half of the children covered, descending first
+   * past any node with only one child in range.
+   *
+   * @return a spliterator over the entries before those left here, or
+   *   null if they cannot be split.
+   */
+  @Override
+  public Spliterator<Map.Entry<String, V>> trySplit() {
+    if (this.cursor != null || this.node == null) {
+      return null;
+    } // if
+    while (!this.node.isLeaf()) {
+      int count = 0;
+      int only = -1;
+      for (int i = this.lo; i < this.hi; i++) {
+        if (this.node.getChild(i) != null) {
+          count++;
+          only = i;
+        } // if
+      } // for
+      int depth = Math.min(this.level * this.stride, this.bitLength);
+      int width = Math.min(this.stride, this.bitLength - depth);
+      if (count > 1) {
+        // Find the child that starts the second half.
+        int mid = this.lo;
+        for (int seen = 0; seen < count / 2; mid++) {
+          if (this.node.getChild(mid) != null) {
+            seen++;
+          } // if
+        } // for
+        char[] half = this.prefix.clone();
+        BitTreeSpliterator<V> first = new BitTreeSpliterator<>(this.stride, this.node,
+            this.level, half, this.lo, mid, this.estimate / 2);
+        this.lo = mid;
+        this.estimate -= this.estimate / 2;
+        return first;
+      } else if (count == 0) {
+        return null;
+      } // if/else
+      for (int b = 0; b < width; b++) {
+        this.prefix[depth + b] = (char) ('0' + ((only >>> (width - 1 - b)) & 1));
+      } // for
+      this.node = this.node.getChild(only);
+      this.level++;
+      this.lo = 0;
+      this.hi = 1 << Math.min(this.stride, this.bitLength - depth - width);
+    } // while
+    return null;
+  } // trySplit()
+
+  /**
+   * Estimates the number of entries left.
+   *
+   * @return the estimate.
+   */
+  @Override
+  public long estimateSize() {
+    return this.estimate;
+  } // estimateSize()
+
+  /**
+   * Describes the entries.
+   *
+   * @return ORDERED, DISTINCT and NONNULL.
+   */
+  @Override
+  public int characteristics() {
+    return ORDERED | DISTINCT | NONNULL;
+  } // characteristics()
+} // class BitTreeSpliterator
@@ -0,0 +1,199 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+
+/**
+ * A summary of the shape and approximate memory footprint of a BitTree,
+ * as returned by <code>BitTree.stats()</code>. Levels are numbered from
+ * the root, at level 0, down to the leaves.
+ *
+ * @author Nicole Moreno Gonzalez
+ */
+public final class BitTreeStats {
+
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The estimated size of an object header, with compressed pointers.
+   */
+  static final int HEADER_BYTES = 12;
+
+  /**
+   * The estimated size of a reference, with compressed pointers.
+   */
+  static final int REFERENCE_BYTES = 4;
+
+  /**
+   * The alignment of objects on the heap.
+   */
+  static final int ALIGNMENT = 8;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The number of nodes on each level.
+   */
+  private final long[] levelCounts;
+
+  /**
+   * The number of children each node on a level can have (0 for leaves).
+   */
+  private final int[] fanouts;
+
+  /**
+   * The estimated bytes used by the nodes.
+   */
+  private final long estimatedBytes;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Summarizes a tree from the number of nodes on each level.
+   *
+   * @param levelCounts the number of nodes on each level; copied.
+   * @param fanouts the fanout of the nodes on each level: 0 for leaves,
+   *   2 for binary nodes, more for multiway nodes; copied.
+   */
+  BitTreeStats(long[] levelCounts, int[] fanouts) {
+    this.levelCounts = levelCounts.clone();
+    this.fanouts = fanouts.clone();
+    long bytes = 0;
+    for (int level = 0; level < levelCounts.length; level++) {
+      bytes += levelCounts[level] * nodeBytes(fanouts[level]);
+    } // for
+    this.estimatedBytes = bytes;
+  } // BitTreeStats(long[], int[])
+
+  // +---------------+-----------------------------------------------
+  // | Local helpers |
+  // +---------------+
+
+  /**
+   * Rounds a size up to the alignment of objects.
+   *
+   * @param bytes the size.
+   * @return the aligned size.
+   */
+  private static long align(long bytes) {
+    return (bytes + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+  } // align(long)
+
+  /**
+   * Estimates the size of one node.
+   *
+   * @param fanout the number of children the node can have.
+   * @return the estimated bytes, including any child array.
+   */
+  private static long nodeBytes(int fanout) {
+    if (fanout == 2) {
+      return align(HEADER_BYTES + 2 * REFERENCE_BYTES);
+    } else if (fanout > 2) {
+      return align(HEADER_BYTES + REFERENCE_BYTES)
+          + align(HEADER_BYTES + Integer.BYTES + (long) fanout * REFERENCE_BYTES);
+    } // if/else
+    return align(HEADER_BYTES + REFERENCE_BYTES);
+  } // nodeBytes(int)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Gets the number of values stored.
+   *
+   * @return the number of leaves.
+   */
+  public long getLeafCount() {
+    return this.levelCounts[this.levelCounts.length - 1];
+  } // getLeafCount()
+
+  /**
+   * Gets the number of interior nodes, including the root.
+   *
+   * @return the number of interior nodes.
+   */
+  public long getInteriorNodeCount() {
+    long count = 0;
+    for (int level = 0; level < this.levelCounts.length - 1; level++) {
+      count += this.levelCounts[level];
+    } // for
+    return count;
+  } // getInteriorNodeCount()
+
+  /**
+   * Gets the number of empty child links in interior nodes.
+   *
+   * @return the number of null children.
+   */
+  public long getNullChildCount() {
+    long count = 0;
+    for (int level = 0; level < this.levelCounts.length - 1; level++) {
+      count += this.levelCounts[level] * this.fanouts[level] - this.levelCounts[level + 1];
+    } // for
+    return count;
+  } // getNullChildCount()
+
+  /**
+   * Estimates the heap used by the nodes of the tree, assuming a 64-bit
+   * JVM with compressed pointers. The values themselves are not counted,
+   * since they may be shared.
+   *
+   * @return the estimated bytes.
+   */
+  public long getEstimatedBytes() {
+    return this.estimatedBytes;
+  } // getEstimatedBytes()
+
+  /**
+   * Gets the number of levels, counting the root and the leaves.
+   *
+   * @return the number of levels.
+   */
+  public int getLevels() {
+    return this.levelCounts.length;
+  } // getLevels()
+
+  /**
+   * Gets the number of nodes on a level.
+   *
+   * @param level the level.
+   * @return the number of nodes.
+   */
+  public long getNodeCount(int level) {
+    return this.levelCounts[level];
+  } // getNodeCount(int)
+
+  /**
+   * Gets the fraction of child links on the level above that lead to a
+   * node on this level. A low occupancy near the root suggests a
+   * narrower stride; a high one throughout suggests freezing.
+   *
+   * @param level the level.
+   * @return the occupancy, between 0 and 1; 1 for the root.
+   */
+  public double getOccupancy(int level) {
+    if (level == 0) {
+      return 1.0;
+    } // if
+    long slots = this.levelCounts[level - 1] * this.fanouts[level - 1];
+    return (slots == 0) ? 0.0 : (double) this.levelCounts[level] / slots;
+  } // getOccupancy(int)
+
+  /**
+   * Summarizes the statistics in a line of text.
+   *
+   * @return the summary.
+   */
+  @Override
+  public String toString() {
+    return "leaves=" + getLeafCount() + ", interior=" + getInteriorNodeCount()
+        + ", nullChildren=" + getNullChildCount() + ", bytes~" + this.estimatedBytes
+        + ", levels=" + Arrays.toString(this.levelCounts);
+  } // toString()
+} // class BitTreeStats
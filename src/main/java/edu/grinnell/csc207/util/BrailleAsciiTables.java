@@ -1,13 +1,29 @@
 package edu.grinnell.csc207.util;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ToIntFunction;
 
 /**
  * A class for converting between ASCII, Braille bit strings,
  * and Unicode Braille characters using BitTrees.
  *
+ * The tables are built once, when the class is initialized, and never
+ * change afterwards, so all of the static methods are safe to call from
+ * any number of threads at once. The build precomputes them into the
+ * resource braille-tables.bin (see BrailleTableGenerator), so that
+ * startup reads a few arrays rather than parsing the CSVs below; if the
+ * resource is missing, the CSVs are parsed instead.
+ *
  * @author Nicole Moreno Gonzalez
  * @author Samuel A. Rebelsky
  */
@@ -31,6 +47,27 @@ public class BrailleAsciiTables {
    */
   private static final int HEX_BASE = 16;
 
+  /**
+   * The number of bytes in the UTF-8 encoding of a Unicode Braille
+   * character.
+   */
+  private static final int UTF8_BRAILLE_BYTES = 3;
+
+  /**
+   * The name of the resource holding the precomputed tables.
+   */
+  static final String TABLES_RESOURCE = "braille-tables.bin";
+
+  /**
+   * The first int of the tables resource, "BAT1".
+   */
+  private static final int TABLES_MAGIC = 0x42415431;
+
+  /**
+   * The table entry for a key with no value.
+   */
+  private static final int MISSING = -1;
+
   /**
    * Conversions from ASCII to braille.
    */
@@ -195,43 +232,287 @@ public class BrailleAsciiTables {
   // +---------------+
 
   /**
-   * BitTree for ASCII to Braille conversions.
+   * The three tables, from the precomputed resource if there is one,
+   * flattened into arrays indexed by key so that a lookup is one load.
+   * They are private and never written after class initialization.
+   */
+  private static final int[][] TABLES = flatten(loadTables());
+
+  /**
+   * ASCII to Braille conversions: each Braille character stored as its
+   * six bits, indexed by ASCII code.
    */
-  static BitTree a2bTree = null;
+  private static final int[] A2B_TABLE = TABLES[0];
 
   /**
-   * BitTree for Braille to ASCII conversions.
+   * Braille to ASCII conversions: each ASCII character stored as its
+   * code, indexed by Braille bits.
    */
-  static BitTree b2aTree = null;
+  private static final int[] B2A_TABLE = TABLES[1];
 
   /**
-   * BitTree for Braille to Unicode conversions.
+   * Braille to Unicode conversions: each Unicode character stored as its
+   * code point, indexed by Braille bits.
    */
-  static BitTree b2uTree = null;
+  private static final int[] B2U_TABLE = TABLES[2];
+
+  /**
+   * Every Braille character as a bit string, indexed by its bits, so that
+   * <code>toBraille</code> can return a string without building one.
+   */
+  private static final String[] BRAILLE_STRINGS = brailleStrings();
 
   // +-----------------------+---------------------------------------
   // | Static helper methods |
   // +-----------------------+
 
   /**
-   * Loads a BitTree with the given mapping data.
+   * Loads the tables, preferring the precomputed resource.
+   *
+   * @return the A2B, B2A and B2U tables.
+   */
+  static IntBitTree[] loadTables() {
+    try (InputStream resource = BrailleAsciiTables.class.getResourceAsStream(TABLES_RESOURCE)) {
+      if (resource != null) {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(resource));
+        if (in.readInt() == TABLES_MAGIC) {
+          return new IntBitTree[] {IntBitTree.read(in), IntBitTree.read(in), IntBitTree.read(in)};
+        } // if
+      } // if
+    } catch (IOException | IllegalArgumentException e) {
+      // Fall back on the CSVs.
+    } // try/catch
+    return parseTables();
+  } // loadTables()
+
+  /**
+   * Flattens the tables into arrays indexed by key.
+   *
+   * @param trees the A2B, B2A and B2U tables.
+   * @return the same tables as arrays, with MISSING for absent keys.
+   */
+  private static int[][] flatten(IntBitTree[] trees) {
+    int[][] tables = new int[trees.length][];
+    for (int i = 0; i < trees.length; i++) {
+      tables[i] = trees[i].toTable(MISSING);
+    } // for
+    return tables;
+  } // flatten(IntBitTree[])
+
+  /**
+   * Builds the tables by parsing the CSVs.
+   *
+   * @return the A2B, B2A and B2U tables.
+   */
+  static IntBitTree[] parseTables() {
+    return new IntBitTree[] {
+      loadTree(A2B, ASCII_BIT_LENGTH, (bits) -> Integer.parseInt(bits, 2)),
+      loadTree(B2A, BRAILLE_BIT_LENGTH, (letter) -> letter.charAt(0)),
+      loadTree(B2U, BRAILLE_BIT_LENGTH, (hex) -> Integer.parseInt(hex, HEX_BASE))
+    };
+  } // parseTables()
+
+  /**
+   * Writes the tables, freshly parsed from the CSVs, in the form that
+   * <code>loadTables</code> reads.
+   *
+   * @param sink where to write them.
+   * @throws IOException if they cannot be written.
+   */
+  static void writeTables(OutputStream sink) throws IOException {
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(sink));
+    out.writeInt(TABLES_MAGIC);
+    for (IntBitTree table : parseTables()) {
+      table.write(out);
+    } // for
+    out.flush();
+  } // writeTables(OutputStream)
+
+  /**
+   * Loads an IntBitTree with the given mapping data.
    *
-   * @param tree the tree to initialize.
    * @param mappings the mapping data in CSV format.
    * @param bitLength the bit length for the tree.
+   * @param parser converts the text of each value.
    * @return the loaded tree.
    */
-  private static BitTree loadTree(BitTree tree, String mappings, int bitLength) {
-    if (tree == null) {
-      tree = new BitTree(bitLength);
-      try (InputStream stream = new ByteArrayInputStream(mappings.getBytes())) {
-        tree.load(stream);
-      } catch (IOException e) {
-        throw new RuntimeException("Failed to load tree", e);
-      } // try/catch
-    } // if
+  private static IntBitTree loadTree(String mappings, int bitLength,
+      ToIntFunction<String> parser) {
+    IntBitTree tree = new IntBitTree(bitLength);
+    try (InputStream stream = new ByteArrayInputStream(mappings.getBytes())) {
+      tree.load(stream, parser);
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to load tree", e);
+    } // try/catch
     return tree;
-  } // loadTree(BitTree, String, int)
+  } // loadTree(String, int, ToIntFunction)
+
+  /**
+   * Builds the bit strings for all Braille characters.
+   *
+   * @return the strings, indexed by their bits.
+   */
+  private static String[] brailleStrings() {
+    String[] strings = new String[1 << BRAILLE_BIT_LENGTH];
+    char[] bits = new char[BRAILLE_BIT_LENGTH];
+    for (int chunk = 0; chunk < strings.length; chunk++) {
+      for (int i = 0; i < BRAILLE_BIT_LENGTH; i++) {
+        bits[i] = (char) ('0' + ((chunk >>> (BRAILLE_BIT_LENGTH - 1 - i)) & 1));
+      } // for
+      strings[chunk] = new String(bits);
+    } // for
+    return strings;
+  } // brailleStrings()
+
+  /**
+   * Reads one Braille chunk of bits from a sequence of characters.
+   *
+   * @param in the characters.
+   * @param start the index of the first bit.
+   * @return the chunk as a key.
+   * @throws IllegalArgumentException if a character is not a bit.
+   */
+  private static int brailleKey(CharSequence in, int start) {
+    int key = 0;
+    for (int i = start; i < start + BRAILLE_BIT_LENGTH; i++) {
+      key = (key << 1) | bitValue(in.charAt(i));
+    } // for
+    return key;
+  } // brailleKey(CharSequence, int)
+
+  /**
+   * Reads one Braille chunk of bits from a buffer of ASCII bytes,
+   * leaving its position alone.
+   *
+   * @param in the buffer.
+   * @param start the index of the first bit.
+   * @return the chunk as a key.
+   * @throws IllegalArgumentException if a byte is not a bit.
+   */
+  private static int brailleKey(ByteBuffer in, int start) {
+    int key = 0;
+    for (int i = start; i < start + BRAILLE_BIT_LENGTH; i++) {
+      key = (key << 1) | bitValue((char) in.get(i));
+    } // for
+    return key;
+  } // brailleKey(ByteBuffer, int)
+
+  /**
+   * Reads one Braille chunk of bits from a sequence of characters,
+   * without throwing.
+   *
+   * @param in the characters.
+   * @param start the index of the first bit.
+   * @return the chunk as a key, or -1 if a character is not a bit.
+   */
+  private static int brailleKeyOrInvalid(CharSequence in, int start) {
+    int key = 0;
+    for (int i = start; i < start + BRAILLE_BIT_LENGTH; i++) {
+      int bit = in.charAt(i) - '0';
+      if ((bit & ~1) != 0) {
+        return -1;
+      } // if
+      key = (key << 1) | bit;
+    } // for
+    return key;
+  } // brailleKeyOrInvalid(CharSequence, int)
+
+  /**
+   * Gets the value of a bit character.
+   *
+   * @param bit the character, which should be '0' or '1'.
+   * @return 0 or 1.
+   * @throws IllegalArgumentException if the character is not a bit.
+   */
+  private static int bitValue(char bit) {
+    switch (bit) {
+      case '0':
+        return 0;
+      case '1':
+        return 1;
+      default:
+        throw new IllegalArgumentException("Invalid bit: " + bit);
+    } // switch
+  } // bitValue(char)
+
+  /**
+   * Makes sure a Braille input has no partial chunk at the end.
+   *
+   * @param length the number of bits in the input.
+   * @throws IllegalArgumentException if the length is not a multiple of
+   *   the Braille bit length.
+   */
+  private static void checkWholeChunks(int length) {
+    if (length % BRAILLE_BIT_LENGTH != 0) {
+      throw new IllegalArgumentException("Invalid bits: input ends with "
+          + (length % BRAILLE_BIT_LENGTH) + " leftover bits");
+    } // if
+  } // checkWholeChunks(int)
+
+  /**
+   * Looks up a key in a table.
+   *
+   * @param table the table.
+   * @param key the key.
+   * @return the value.
+   * @throws IndexOutOfBoundsException if the key is out of range or has
+   *   no value.
+   */
+  private static int lookup(int[] table, int key) {
+    if (key < 0 || key >= table.length) {
+      throw new IndexOutOfBoundsException("Key out of range.");
+    } // if
+    int value = table[key];
+    if (value == MISSING) {
+      throw new IndexOutOfBoundsException("Path does not exist.");
+    } // if
+    return value;
+  } // lookup(int[], int)
+
+  /**
+   * Looks up a key in a table without throwing.
+   *
+   * @param table the table.
+   * @param key the key.
+   * @return the value, or MISSING if the key is out of range or has none.
+   */
+  private static int lookupOrMissing(int[] table, int key) {
+    return (key >= 0 && key < table.length) ? table[key] : MISSING;
+  } // lookupOrMissing(int[], int)
+
+  /**
+   * Gets the Braille chunk for an ASCII character.
+   *
+   * @param letter the character's code.
+   * @return the chunk's six bits.
+   * @throws IndexOutOfBoundsException if the character has no Braille
+   *   equivalent.
+   */
+  static int brailleFor(int letter) {
+    return lookup(A2B_TABLE, letter);
+  } // brailleFor(int)
+
+  /**
+   * Gets the ASCII character for a Braille chunk.
+   *
+   * @param key the chunk.
+   * @return the character's code.
+   * @throws IndexOutOfBoundsException if the chunk has no ASCII
+   *   equivalent.
+   */
+  static int asciiFor(int key) {
+    return lookup(B2A_TABLE, key);
+  } // asciiFor(int)
+
+  /**
+   * Gets the Unicode code point for a Braille chunk.
+   *
+   * @param key the chunk.
+   * @return the code point.
+   */
+  static int unicodeFor(int key) {
+    return lookup(B2U_TABLE, key);
+  } // unicodeFor(int)
 
   // +----------------+----------------------------------------------
   // | Static methods |
@@ -244,12 +525,7 @@ public class BrailleAsciiTables {
    * @return the corresponding Braille bit string.
    */
   public static String toBraille(char letter) {
-    a2bTree = loadTree(a2bTree, A2B, ASCII_BIT_LENGTH);
-    String bits = Integer.toBinaryString(letter);
-    while (bits.length() < ASCII_BIT_LENGTH) {
-      bits = "0" + bits;
-    } // while
-    return a2bTree.get(bits);
+    return BRAILLE_STRINGS[brailleFor(letter)];
   } // toBraille(char)
 
   /**
@@ -259,8 +535,7 @@ public class BrailleAsciiTables {
    * @return the corresponding ASCII character.
    */
   public static String toAscii(String bits) {
-    b2aTree = loadTree(b2aTree, B2A, BRAILLE_BIT_LENGTH);
-    return b2aTree.get(bits);
+    return String.valueOf((char) asciiFor((int) BitTree.parseBits(bits, BRAILLE_BIT_LENGTH)));
   } // toAscii(String)
 
   /**
@@ -270,8 +545,322 @@ public class BrailleAsciiTables {
    * @return the corresponding Unicode Braille character.
    */
   public static String toUnicode(String bits) {
-    b2uTree = loadTree(b2uTree, B2U, BRAILLE_BIT_LENGTH);
-    String unicodeHex = b2uTree.get(bits);
-    return Character.toString(Integer.parseInt(unicodeHex, HEX_BASE));
+    return Character.toString(unicodeFor((int) BitTree.parseBits(bits, BRAILLE_BIT_LENGTH)));
   } // toUnicode(String)
+
+  // +--------------+------------------------------------------------
+  // | Bulk methods |
+  // +--------------+
+
+  /**
+   * Converts a sequence of ASCII characters to Braille bit strings.
+   *
+   * @param in the ASCII characters.
+   * @param out where to append the bits.
+   * @throws IOException if out cannot be appended to.
+   * @throws IndexOutOfBoundsException if a character has no Braille
+   *   equivalent.
+   */
+  public static void translateToBraille(CharSequence in, Appendable out) throws IOException {
+    for (int i = 0; i < in.length(); i++) {
+      out.append(BRAILLE_STRINGS[brailleFor(in.charAt(i))]);
+    } // for
+  } // translateToBraille(CharSequence, Appendable)
+
+  /**
+   * Converts a sequence of Braille bits to ASCII characters.
+   *
+   * @param in the Braille bits, six per character.
+   * @param out where to append the characters.
+   * @throws IOException if out cannot be appended to.
+   * @throws IllegalArgumentException if the bits are not all 0 and 1 or
+   *   end with a partial chunk.
+   * @throws IndexOutOfBoundsException if a chunk has no ASCII equivalent.
+   */
+  public static void translateToAscii(CharSequence in, Appendable out) throws IOException {
+    checkWholeChunks(in.length());
+    for (int i = 0; i < in.length(); i += BRAILLE_BIT_LENGTH) {
+      out.append((char) asciiFor(brailleKey(in, i)));
+    } // for
+  } // translateToAscii(CharSequence, Appendable)
+
+  /**
+   * Converts a sequence of Braille bits to Unicode Braille characters.
+   *
+   * @param in the Braille bits, six per character.
+   * @param out where to append the characters.
+   * @throws IOException if out cannot be appended to.
+   * @throws IllegalArgumentException if the bits are not all 0 and 1 or
+   *   end with a partial chunk.
+   */
+  public static void translateToUnicode(CharSequence in, Appendable out) throws IOException {
+    checkWholeChunks(in.length());
+    for (int i = 0; i < in.length(); i += BRAILLE_BIT_LENGTH) {
+      out.append((char) unicodeFor(brailleKey(in, i)));
+    } // for
+  } // translateToUnicode(CharSequence, Appendable)
+
+  /**
+   * Converts a sequence of ASCII characters to Braille bit strings,
+   * skipping characters with no Braille equivalent rather than throwing.
+   *
+   * @param in the ASCII characters.
+   * @param out where to append the bits.
+   * @param invalid given each skipped character, as a string, and its
+   *   index in the input.
+   * @throws IOException if out cannot be appended to.
+   */
+  public static void translateToBraille(CharSequence in, Appendable out,
+      ObjIntConsumer<String> invalid) throws IOException {
+    for (int i = 0; i < in.length(); i++) {
+      int braille = lookupOrMissing(A2B_TABLE, in.charAt(i));
+      if (braille < 0) {
+        invalid.accept(String.valueOf(in.charAt(i)), i);
+      } else {
+        out.append(BRAILLE_STRINGS[braille]);
+      } // if/else
+    } // for
+  } // translateToBraille(CharSequence, Appendable, ObjIntConsumer)
+
+  /**
+   * Converts a sequence of Braille bits to ASCII characters, skipping
+   * chunks that are not all bits or have no ASCII equivalent, and any
+   * partial chunk at the end, rather than throwing. On noisy input this
+   * is far faster than catching an exception per bad chunk.
+   *
+   * @param in the Braille bits, six per character.
+   * @param out where to append the characters.
+   * @param invalid given each skipped chunk and its index in the input.
+   * @throws IOException if out cannot be appended to.
+   */
+  public static void translateToAscii(CharSequence in, Appendable out,
+      ObjIntConsumer<String> invalid) throws IOException {
+    int end = in.length() - in.length() % BRAILLE_BIT_LENGTH;
+    for (int i = 0; i < end; i += BRAILLE_BIT_LENGTH) {
+      int key = brailleKeyOrInvalid(in, i);
+      int letter = (key < 0) ? -1 : lookupOrMissing(B2A_TABLE, key);
+      if (letter < 0) {
+        invalid.accept(in.subSequence(i, i + BRAILLE_BIT_LENGTH).toString(), i);
+      } else {
+        out.append((char) letter);
+      } // if/else
+    } // for
+    if (end < in.length()) {
+      invalid.accept(in.subSequence(end, in.length()).toString(), end);
+    } // if
+  } // translateToAscii(CharSequence, Appendable, ObjIntConsumer)
+
+  /**
+   * Converts a sequence of Braille bits to Unicode Braille characters,
+   * skipping chunks that are not all bits, and any partial chunk at the
+   * end, rather than throwing.
+   *
+   * @param in the Braille bits, six per character.
+   * @param out where to append the characters.
+   * @param invalid given each skipped chunk and its index in the input.
+   * @throws IOException if out cannot be appended to.
+   */
+  public static void translateToUnicode(CharSequence in, Appendable out,
+      ObjIntConsumer<String> invalid) throws IOException {
+    int end = in.length() - in.length() % BRAILLE_BIT_LENGTH;
+    for (int i = 0; i < end; i += BRAILLE_BIT_LENGTH) {
+      int key = brailleKeyOrInvalid(in, i);
+      if (key < 0) {
+        invalid.accept(in.subSequence(i, i + BRAILLE_BIT_LENGTH).toString(), i);
+      } else {
+        out.append((char) unicodeFor(key));
+      } // if/else
+    } // for
+    if (end < in.length()) {
+      invalid.accept(in.subSequence(end, in.length()).toString(), end);
+    } // if
+  } // translateToUnicode(CharSequence, Appendable, ObjIntConsumer)
+
+  /**
+   * Converts ASCII characters to Braille bits, stopping when the input is
+   * used up or the output has no room for another character's bits.
+   *
+   * @param in the ASCII characters; its position is advanced past those
+   *   translated.
+   * @param out where to put the bits.
+   * @throws IndexOutOfBoundsException if a character has no Braille
+   *   equivalent.
+   */
+  public static void translateToBraille(CharBuffer in, CharBuffer out) {
+    while (in.hasRemaining() && out.remaining() >= BRAILLE_BIT_LENGTH) {
+      out.put(BRAILLE_STRINGS[brailleFor(in.get(in.position()))]);
+      in.position(in.position() + 1);
+    } // while
+  } // translateToBraille(CharBuffer, CharBuffer)
+
+  /**
+   * Converts Braille bits to ASCII characters, stopping when fewer than a
+   * chunk of bits remain or the output is full. A partial chunk is left
+   * in the input for the caller to complete.
+   *
+   * @param in the Braille bits; its position is advanced past those
+   *   translated.
+   * @param out where to put the characters.
+   * @throws IllegalArgumentException if the bits are not all 0 and 1.
+   * @throws IndexOutOfBoundsException if a chunk has no ASCII equivalent.
+   */
+  public static void translateToAscii(CharBuffer in, CharBuffer out) {
+    while (in.remaining() >= BRAILLE_BIT_LENGTH && out.hasRemaining()) {
+      out.put((char) asciiFor(brailleKey(in, 0)));
+      in.position(in.position() + BRAILLE_BIT_LENGTH);
+    } // while
+  } // translateToAscii(CharBuffer, CharBuffer)
+
+  /**
+   * Converts Braille bits to Unicode Braille characters, stopping when
+   * fewer than a chunk of bits remain or the output is full. A partial
+   * chunk is left in the input for the caller to complete.
+   *
+   * @param in the Braille bits; its position is advanced past those
+   *   translated.
+   * @param out where to put the characters.
+   * @throws IllegalArgumentException if the bits are not all 0 and 1.
+   */
+  public static void translateToUnicode(CharBuffer in, CharBuffer out) {
+    while (in.remaining() >= BRAILLE_BIT_LENGTH && out.hasRemaining()) {
+      out.put((char) unicodeFor(brailleKey(in, 0)));
+      in.position(in.position() + BRAILLE_BIT_LENGTH);
+    } // while
+  } // translateToUnicode(CharBuffer, CharBuffer)
+
+  /**
+   * Converts ASCII characters to Braille bits, as
+   * <code>translateToBraille(CharBuffer, CharBuffer)</code> does, but
+   * skipping characters with no Braille equivalent rather than throwing.
+   *
+   * @param in the ASCII characters; its position is advanced past those
+   *   translated or skipped.
+   * @param out where to put the bits.
+   * @param invalid given each skipped character, as a string, and its
+   *   position in the input.
+   */
+  public static void translateToBraille(CharBuffer in, CharBuffer out,
+      ObjIntConsumer<String> invalid) {
+    while (in.hasRemaining() && out.remaining() >= BRAILLE_BIT_LENGTH) {
+      char letter = in.get(in.position());
+      int braille = lookupOrMissing(A2B_TABLE, letter);
+      if (braille < 0) {
+        invalid.accept(String.valueOf(letter), in.position());
+      } else {
+        out.put(BRAILLE_STRINGS[braille]);
+      } // if/else
+      in.position(in.position() + 1);
+    } // while
+  } // translateToBraille(CharBuffer, CharBuffer, ObjIntConsumer)
+
+  /**
+   * Converts Braille bits to ASCII characters, as
+   * <code>translateToAscii(CharBuffer, CharBuffer)</code> does, but
+   * skipping invalid chunks rather than throwing. A partial chunk is
+   * still left in the input for the caller to complete.
+   *
+   * @param in the Braille bits; its position is advanced past those
+   *   translated or skipped.
+   * @param out where to put the characters.
+   * @param invalid given each skipped chunk and its position in the
+   *   input.
+   */
+  public static void translateToAscii(CharBuffer in, CharBuffer out,
+      ObjIntConsumer<String> invalid) {
+    while (in.remaining() >= BRAILLE_BIT_LENGTH && out.hasRemaining()) {
+      int key = brailleKeyOrInvalid(in, 0);
+      int letter = (key < 0) ? -1 : lookupOrMissing(B2A_TABLE, key);
+      if (letter < 0) {
+        invalid.accept(in.subSequence(0, BRAILLE_BIT_LENGTH).toString(), in.position());
+      } else {
+        out.put((char) letter);
+      } // if/else
+      in.position(in.position() + BRAILLE_BIT_LENGTH);
+    } // while
+  } // translateToAscii(CharBuffer, CharBuffer, ObjIntConsumer)
+
+  /**
+   * Converts Braille bits to Unicode Braille characters, as
+   * <code>translateToUnicode(CharBuffer, CharBuffer)</code> does, but
+   * skipping invalid chunks rather than throwing. A partial chunk is
+   * still left in the input for the caller to complete.
+   *
+   * @param in the Braille bits; its position is advanced past those
+   *   translated or skipped.
+   * @param out where to put the characters.
+   * @param invalid given each skipped chunk and its position in the
+   *   input.
+   */
+  public static void translateToUnicode(CharBuffer in, CharBuffer out,
+      ObjIntConsumer<String> invalid) {
+    while (in.remaining() >= BRAILLE_BIT_LENGTH && out.hasRemaining()) {
+      int key = brailleKeyOrInvalid(in, 0);
+      if (key < 0) {
+        invalid.accept(in.subSequence(0, BRAILLE_BIT_LENGTH).toString(), in.position());
+      } else {
+        out.put((char) unicodeFor(key));
+      } // if/else
+      in.position(in.position() + BRAILLE_BIT_LENGTH);
+    } // while
+  } // translateToUnicode(CharBuffer, CharBuffer, ObjIntConsumer)
+
+  /**
+   * Converts ASCII bytes to Braille bits, written as the ASCII bytes '0'
+   * and '1', stopping when the input is used up or the output has no room
+   * for another character's bits.
+   *
+   * @param in the ASCII bytes; its position is advanced past those
+   *   translated.
+   * @param out where to put the bits.
+   * @throws IndexOutOfBoundsException if a byte has no Braille equivalent.
+   */
+  public static void translateToBraille(ByteBuffer in, ByteBuffer out) {
+    while (in.hasRemaining() && out.remaining() >= BRAILLE_BIT_LENGTH) {
+      int chunk = brailleFor(in.get(in.position()) & 0xFF);
+      for (int i = BRAILLE_BIT_LENGTH - 1; i >= 0; i--) {
+        out.put((byte) ('0' + ((chunk >>> i) & 1)));
+      } // for
+      in.position(in.position() + 1);
+    } // while
+  } // translateToBraille(ByteBuffer, ByteBuffer)
+
+  /**
+   * Converts Braille bits, given as the ASCII bytes '0' and '1', to ASCII
+   * bytes, stopping when fewer than a chunk of bits remain or the output
+   * is full. A partial chunk is left in the input for the caller to
+   * complete.
+   *
+   * @param in the Braille bits; its position is advanced past those
+   *   translated.
+   * @param out where to put the ASCII bytes.
+   * @throws IllegalArgumentException if the bits are not all 0 and 1.
+   * @throws IndexOutOfBoundsException if a chunk has no ASCII equivalent.
+   */
+  public static void translateToAscii(ByteBuffer in, ByteBuffer out) {
+    while (in.remaining() >= BRAILLE_BIT_LENGTH && out.hasRemaining()) {
+      out.put((byte) asciiFor(brailleKey(in, in.position())));
+      in.position(in.position() + BRAILLE_BIT_LENGTH);
+    } // while
+  } // translateToAscii(ByteBuffer, ByteBuffer)
+
+  /**
+   * Converts Braille bits, given as the ASCII bytes '0' and '1', to
+   * UTF-8 encoded Unicode Braille characters, stopping when fewer than a
+   * chunk of bits remain or the output has no room for another character.
+   * A partial chunk is left in the input for the caller to complete.
+   *
+   * @param in the Braille bits; its position is advanced past those
+   *   translated.
+   * @param out where to put the UTF-8 bytes.
+   * @throws IllegalArgumentException if the bits are not all 0 and 1.
+   */
+  public static void translateToUnicode(ByteBuffer in, ByteBuffer out) {
+    while (in.remaining() >= BRAILLE_BIT_LENGTH && out.remaining() >= UTF8_BRAILLE_BYTES) {
+      int codePoint = unicodeFor(brailleKey(in, in.position()));
+      out.put((byte) (0xE0 | (codePoint >>> 12)));
+      out.put((byte) (0x80 | ((codePoint >>> 6) & 0x3F)));
+      out.put((byte) (0x80 | (codePoint & 0x3F)));
+      in.position(in.position() + BRAILLE_BIT_LENGTH);
+    } // while
+  } // translateToUnicode(ByteBuffer, ByteBuffer)
 } // BrailleAsciiTables
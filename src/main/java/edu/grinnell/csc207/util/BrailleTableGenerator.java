@@ -0,0 +1,43 @@
+package edu.grinnell.csc207.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Precomputes the translation tables of BrailleAsciiTables into a binary
+ * resource. The build runs this after compiling, writing the resource
+ * next to the compiled classes; run it by hand only if the CSVs in
+ * BrailleAsciiTables change and the resource must be rebuilt without a
+ * full build.
+ *
+ * @author Nicole Moreno Gonzalez
+ */
+public class BrailleTableGenerator {
+
+  // +------+--------------------------------------------------------
+  // | Main |
+  // +------+
+
+  /**
+   * Writes the tables.
+   *
+   * @param args Command-line arguments:
+   *             - args[0]: The file to write.
+   * @throws IOException if the file cannot be written.
+   * @throws IllegalArgumentException if no file is named.
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 1) {
+      throw new IllegalArgumentException("Usage: BrailleTableGenerator <output file>");
+    } // if
+    Path target = Path.of(args[0]);
+    if (target.getParent() != null) {
+      Files.createDirectories(target.getParent());
+    } // if
+    try (OutputStream out = Files.newOutputStream(target)) {
+      BrailleAsciiTables.writeTables(out);
+    } // try
+  } // main(String[])
+} // class BrailleTableGenerator
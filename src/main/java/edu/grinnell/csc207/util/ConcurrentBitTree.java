@@ -0,0 +1,266 @@
+package edu.grinnell.csc207.util;
+
+import java.io.PrintWriter;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A BitTree that may be shared between threads. Lookups never lock: they
+ * follow volatile child links. Setting a value never locks either: a
+ * missing node is added with a compare-and-set on its parent's link (the
+ * loser of a race simply uses the winner's node). A new leaf is built
+ * holding its value before it is linked in, and an existing leaf's value
+ * is replaced with a volatile write. So writers on disjoint paths never
+ * wait for each other, and readers always see either the old or the new
+ * value, or no value at all for a key not yet set.
+ *
+ * @param <V> the type of values stored in the tree.
+ *
+ * @author Nicole Moreno Gonzalez
+ */
+public class ConcurrentBitTree<V> {
+
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * Access to the left links of interior nodes.
+   */
+  private static final VarHandle LEFT;
+
+  /**
+   * Access to the right links of interior nodes.
+   */
+  private static final VarHandle RIGHT;
+
+  static {
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      LEFT = lookup.findVarHandle(Interior.class, "left", Object.class);
+      RIGHT = lookup.findVarHandle(Interior.class, "right", Object.class);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    } // try/catch
+  } // static
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The root of the tree.
+   */
+  private final Interior root;
+
+  /**
+   * The length of bit sequences stored in the tree.
+   */
+  private final int bitLength;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Constructs a new tree for sequences of a given length.
+   *
+   * @param n the length of bit sequences, at most 64.
+   */
+  public ConcurrentBitTree(int n) {
+    if (n < 1 || n > BitTree.LONG_BITS) {
+      throw new IllegalArgumentException("Bit length must be between 1 and 64.");
+    } // if
+    this.bitLength = n;
+    this.root = new Interior();
+  } // ConcurrentBitTree(int)
+
+  // +---------------+-----------------------------------------------
+  // | Local helpers |
+  // +---------------+
+
+  /**
+   * Finds the interior child of a node, adding one if there is none.
+   *
+   * @param node the parent.
+   * @param handle the link to follow.
+   * @return the child.
+   */
+  private static Interior child(Interior node, VarHandle handle) {
+    Object child = handle.getAcquire(node);
+    if (child == null) {
+      Interior fresh = new Interior();
+      child = handle.compareAndExchange(node, null, fresh);
+      if (child == null) {
+        child = fresh;
+      } // if
+    } // if
+    return (Interior) child;
+  } // child(Interior, VarHandle)
+
+  /**
+   * A recursive helper method for dumping the tree contents.
+   *
+   * @param node the current node being processed.
+   * @param path the bits on the path so far.
+   * @param depth the number of bits in the path.
+   * @param pen the writer to output the tree's contents.
+   */
+  private void dumpHelper(Object node, char[] path, int depth, PrintWriter pen) {
+    if (node == null) {
+      return;
+    } // if
+    if (node instanceof Leaf leaf) {
+      pen.print(path);
+      pen.println("," + leaf.value);
+    } else {
+      Interior interior = (Interior) node;
+      path[depth] = '0';
+      dumpHelper(LEFT.getAcquire(interior), path, depth + 1, pen);
+      path[depth] = '1';
+      dumpHelper(RIGHT.getAcquire(interior), path, depth + 1, pen);
+    } // else
+  } // dumpHelper(Object, char[], int, PrintWriter)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Sets the value for a specific bit sequence.
+   *
+   * @param bits the bit sequence.
+   * @param value the value to set.
+   */
+  public void set(String bits, V value) {
+    set(BitTree.parseBits(bits, this.bitLength), value);
+  } // set(String, V)
+
+  /**
+   * Sets the value for the bit sequence given by the low bitLength bits
+   * of a key. The key is treated as unsigned.
+   *
+   * @param key the key.
+   * @param value the value to set.
+   */
+  public void set(int key, V value) {
+    set(Integer.toUnsignedLong(key), value);
+  } // set(int, V)
+
+  /**
+   * Sets the value for the bit sequence given by the low bitLength bits
+   * of a key. The key is treated as unsigned.
+   *
+   * @param key the key.
+   * @param value the value to set.
+   */
+  public void set(long key, V value) {
+    BitTree.checkKey(key, this.bitLength);
+    Interior node = this.root;
+    for (int i = this.bitLength - 1; i > 0; i--) {
+      node = child(node, (((key >>> i) & 1) == 0) ? LEFT : RIGHT);
+    } // for
+    VarHandle link = ((key & 1) == 0) ? LEFT : RIGHT;
+    Object leaf = link.getAcquire(node);
+    if (leaf == null) {
+      // Publish the leaf with its value, so no reader sees it empty.
+      leaf = link.compareAndExchange(node, null, new Leaf(value));
+      if (leaf == null) {
+        return;
+      } // if
+    } // if
+    ((Leaf) leaf).value = value;
+  } // set(long, V)
+
+  /**
+   * Gets the value for a specific bit sequence.
+   *
+   * @param bits the bit sequence.
+   * @return the corresponding value.
+   */
+  public V get(String bits) {
+    return get(BitTree.parseBits(bits, this.bitLength));
+  } // get(String)
+
+  /**
+   * Gets the value for the bit sequence given by the low bitLength bits
+   * of a key. The key is treated as unsigned.
+   *
+   * @param key the key.
+   * @return the corresponding value.
+   */
+  public V get(int key) {
+    return get(Integer.toUnsignedLong(key));
+  } // get(int)
+
+  /**
+   * Gets the value for the bit sequence given by the low bitLength bits
+   * of a key. The key is treated as unsigned.
+   *
+   * @param key the key.
+   * @return the corresponding value.
+   * @throws IndexOutOfBoundsException if the key has more than bitLength
+   *   bits or names no value.
+   */
+  @SuppressWarnings("unchecked")
+  public V get(long key) {
+    BitTree.checkKey(key, this.bitLength);
+    Object node = this.root;
+    for (int i = this.bitLength - 1; i >= 0; i--) {
+      VarHandle link = (((key >>> i) & 1) == 0) ? LEFT : RIGHT;
+      node = link.getAcquire((Interior) node);
+      if (node == null) {
+        throw new IndexOutOfBoundsException("Path does not exist.");
+      } // if
+    } // for
+    return (V) ((Leaf) node).value;
+  } // get(long)
+
+  /**
+   * Dumps the tree contents in CSV format. Entries added while the dump
+   * is running may or may not appear.
+   *
+   * @param pen the writer to output to.
+   */
+  public void dump(PrintWriter pen) {
+    dumpHelper(this.root, new char[this.bitLength], 0, pen);
+  } // dump(PrintWriter)
+
+  // +---------------+-----------------------------------------------
+  // | Inner classes |
+  // +---------------+
+
+  /**
+   * An interior node. Children are Interior or Leaf objects.
+   */
+  private static class Interior {
+    /**
+     * The left child.
+     */
+    volatile Object left;
+
+    /**
+     * The right child.
+     */
+    volatile Object right;
+  } // class Interior
+
+  /**
+   * A leaf node.
+   */
+  private static class Leaf {
+    /**
+     * The value stored in this leaf.
+     */
+    volatile Object value;
+
+    /**
+     * Constructs a leaf holding a value.
+     *
+     * @param value the value.
+     */
+    Leaf(Object value) {
+      this.value = value;
+    } // Leaf(Object)
+  } // class Leaf
+} // class ConcurrentBitTree
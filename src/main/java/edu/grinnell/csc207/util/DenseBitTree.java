@@ -0,0 +1,143 @@
+package edu.grinnell.csc207.util;
+
+import java.io.PrintWriter;
+
+/**
+ * An immutable BitTree that stores its values in an array indexed by
+ * key, so that a lookup is a single array load rather than a walk through
+ * one node per bit. Made with <code>BitTree.freeze()</code>.
+ *
+ * @param <V> the type of values stored in the tree.
+ *
+ * @author Nicole Moreno Gonzalez
+ */
+public class DenseBitTree<V> {
+
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The longest bit sequences we are willing to flatten (a million slots).
+   */
+  public static final int MAX_BIT_LENGTH = 20;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The length of bit sequences stored in the tree.
+   */
+  private final int bitLength;
+
+  /**
+   * The values, indexed by key.
+   */
+  private final Object[] values;
+
+  /**
+   * One bit per key, set when the key has a value (which may be null).
+   */
+  private final long[] present;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Constructs a tree from already-flattened contents.
+   *
+   * @param n the length of bit sequences.
+   * @param values the values, indexed by key.
+   * @param present one bit per key, set when the key has a value.
+   */
+  DenseBitTree(int n, Object[] values, long[] present) {
+    this.bitLength = n;
+    this.values = values;
+    this.present = present;
+  } // DenseBitTree(int, Object[], long[])
+
+  // +---------------+-----------------------------------------------
+  // | Local helpers |
+  // +---------------+
+
+  /**
+   * Determines whether a key has a value.
+   *
+   * @param key the key, already known to be in range.
+   * @return true if the key has a value, false otherwise.
+   */
+  private boolean isPresent(long key) {
+    return (this.present[(int) (key >>> 6)] & (1L << key)) != 0;
+  } // isPresent(long)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Gets the value for a specific bit sequence.
+   *
+   * @param bits the bit sequence.
+   * @return the corresponding value.
+   * @throws IndexOutOfBoundsException if the length does not match or the
+   *   path does not exist.
+   * @throws IllegalArgumentException if a character is not a bit.
+   */
+  public V get(String bits) {
+    return get(BitTree.parseBits(bits, this.bitLength));
+  } // get(String)
+
+  /**
+   * Gets the value for the bit sequence given by the low bitLength bits
+   * of a key. The key is treated as unsigned.
+   *
+   * @param key the key.
+   * @return the corresponding value.
+   * @throws IndexOutOfBoundsException if the key has more than bitLength
+   *   bits or names no value.
+   */
+  public V get(int key) {
+    return get(Integer.toUnsignedLong(key));
+  } // get(int)
+
+  /**
+   * Gets the value for the bit sequence given by the low bitLength bits
+   * of a key. The key is treated as unsigned.
+   *
+   * @param key the key.
+   * @return the corresponding value.
+   * @throws IndexOutOfBoundsException if the key has more than bitLength
+   *   bits or names no value.
+   */
+  @SuppressWarnings("unchecked")
+  public V get(long key) {
+    if ((key >>> this.bitLength) != 0) {
+      throw new IndexOutOfBoundsException("Key out of range.");
+    } // if
+    if (!isPresent(key)) {
+      throw new IndexOutOfBoundsException("Path does not exist.");
+    } // if
+    return (V) this.values[(int) key];
+  } // get(long)
+
+  /**
+   * Dumps the tree contents in CSV format, in the same form as
+   * <code>BitTree.dump</code>.
+   *
+   * @param pen the writer to output to.
+   */
+  public void dump(PrintWriter pen) {
+    char[] bits = new char[this.bitLength];
+    for (int key = 0; key < this.values.length; key++) {
+      if (isPresent(key)) {
+        for (int i = 0; i < this.bitLength; i++) {
+          bits[i] = (char) ('0' + ((key >>> (this.bitLength - 1 - i)) & 1));
+        } // for
+        pen.print(bits);
+        pen.println("," + this.values[key]);
+      } // if
+    } // for
+  } // dump(PrintWriter)
+} // class DenseBitTree
@@ -0,0 +1,441 @@
+package edu.grinnell.csc207.util;
+
+import java.io.BufferedReader;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.function.ToIntFunction;
+
+/**
+ * A BitTree that maps keys of up to 32 bits to <code>int</code> values.
+ * Rather than node objects, the tree is kept in two int arrays: one
+ * holding a pair of child links for each interior node, and one holding
+ * the values of the leaves. So lookups neither box nor allocate, and the
+ * whole tree is a handful of objects however large it grows.
+ *
+ * @author Nicole Moreno Gonzalez
+ */
+public class IntBitTree {
+
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The longest keys an IntBitTree can hold.
+   */
+  public static final int MAX_BIT_LENGTH = Integer.SIZE;
+
+  /**
+   * The number of nodes and leaves we make room for at first.
+   */
+  private static final int INITIAL_CAPACITY = 16;
+
+  /**
+   * The longest keys <code>toTable</code> will flatten.
+   */
+  private static final int MAX_TABLE_BITS = 16;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The length of bit sequences stored in the tree.
+   */
+  private final int bitLength;
+
+  /**
+   * The children of the interior nodes: those of node i are at 2i (for a
+   * 0 bit) and 2i + 1 (for a 1 bit). Node 0 is the root. In the last
+   * level a link is one more than the index of a leaf; elsewhere it is
+   * the index of an interior node. Either way, 0 means no child.
+   */
+  private int[] children;
+
+  /**
+   * The number of interior nodes.
+   */
+  private int nodeCount;
+
+  /**
+   * The values of the leaves.
+   */
+  private int[] values;
+
+  /**
+   * The number of leaves.
+   */
+  private int leafCount;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Constructs a new tree for sequences of a given length.
+   *
+   * @param n the length of bit sequences, between 1 and 32.
+   */
+  public IntBitTree(int n) {
+    this(n, new int[2 * INITIAL_CAPACITY], 1, new int[INITIAL_CAPACITY], 0);
+  } // IntBitTree(int)
+
+  /**
+   * Constructs a tree from its arrays.
+   *
+   * @param n the length of bit sequences, between 1 and 32.
+   * @param children the child links, two per interior node.
+   * @param nodeCount the number of interior nodes in use.
+   * @param values the values of the leaves.
+   * @param leafCount the number of leaves in use.
+   */
+  IntBitTree(int n, int[] children, int nodeCount, int[] values, int leafCount) {
+    if (n < 1 || n > MAX_BIT_LENGTH) {
+      throw new IllegalArgumentException("Bit length must be between 1 and 32.");
+    } // if
+    this.bitLength = n;
+    this.children = children;
+    this.nodeCount = nodeCount;
+    this.values = values;
+    this.leafCount = leafCount;
+  } // IntBitTree(int, int[], int, int[], int)
+
+  /**
+   * Reads a tree written by <code>write</code>.
+   *
+   * @param in where to read the tree.
+   * @return the tree.
+   * @throws IOException if the tree cannot be read or is malformed.
+   */
+  static IntBitTree read(DataInput in) throws IOException {
+    int n = in.readInt();
+    int nodeCount = in.readInt();
+    int leafCount = in.readInt();
+    if (n < 1 || n > MAX_BIT_LENGTH || nodeCount < 1 || nodeCount > Integer.MAX_VALUE / 2
+        || leafCount < 0 || leafCount == Integer.MAX_VALUE) {
+      throw new IOException("Malformed IntBitTree.");
+    } // if
+    int[] children = new int[2 * nodeCount];
+    for (int i = 0; i < children.length; i++) {
+      children[i] = in.readInt();
+    } // for
+    int[] values = new int[Math.max(leafCount, 1)];
+    for (int i = 0; i < leafCount; i++) {
+      values[i] = in.readInt();
+    } // for
+    checkLinks(children, 0, 1, n, new boolean[nodeCount], leafCount);
+    return new IntBitTree(n, children, nodeCount, values, leafCount);
+  } // read(DataInput)
+
+  /**
+   * Makes sure that the links below a node, as read by <code>read</code>,
+   * form a tree: every link names a node or leaf that exists, at the
+   * right depth, and no node is reached twice.
+   *
+   * @param children the child links.
+   * @param node the node to check.
+   * @param depth the number of bits consumed at the node's children.
+   * @param n the bit length.
+   * @param seen the nodes reached so far.
+   * @param leafCount the number of leaves.
+   * @throws IOException if the links do not form such a tree.
+   */
+  private static void checkLinks(int[] children, int node, int depth, int n, boolean[] seen,
+      int leafCount) throws IOException {
+    if (seen[node]) {
+      throw new IOException("Malformed IntBitTree.");
+    } // if
+    seen[node] = true;
+    for (int bit = 0; bit <= 1; bit++) {
+      int link = children[2 * node + bit];
+      if (link == 0) {
+        continue;
+      } else if (link < 0 || (depth == n ? link > leafCount : link >= seen.length)) {
+        throw new IOException("Malformed IntBitTree.");
+      } else if (depth < n) {
+        checkLinks(children, link, depth + 1, n, seen, leafCount);
+      } // if/else
+    } // for
+  } // checkLinks(int[], int, int, int, boolean[], int)
+
+  // +---------------+-----------------------------------------------
+  // | Local helpers |
+  // +---------------+
+
+  /**
+   * Adds an interior node with no children.
+   *
+   * @return the index of the new node.
+   */
+  private int newNode() {
+    if (2 * this.nodeCount == this.children.length) {
+      this.children = Arrays.copyOf(this.children, 2 * this.children.length);
+    } // if
+    return this.nodeCount++;
+  } // newNode()
+
+  /**
+   * Adds a leaf.
+   *
+   * @return the link to the new leaf.
+   */
+  private int newLeaf() {
+    if (this.leafCount == this.values.length) {
+      this.values = Arrays.copyOf(this.values, 2 * this.values.length);
+    } // if
+    return ++this.leafCount;
+  } // newLeaf()
+
+  /**
+   * Finds the leaf for a key.
+   *
+   * @param key the key, already checked.
+   * @return the index of the leaf, or -1 if there is none.
+   */
+  private int find(long key) {
+    int node = 0;
+    for (int i = this.bitLength - 1; i > 0; i--) {
+      node = this.children[2 * node + (int) ((key >>> i) & 1)];
+      if (node == 0) {
+        return -1;
+      } // if
+    } // for
+    return this.children[2 * node + (int) (key & 1)] - 1;
+  } // find(long)
+
+  /**
+   * Converts an int key into a checked unsigned key.
+   *
+   * @param key the key.
+   * @return the key as an unsigned long.
+   * @throws IndexOutOfBoundsException if the key has too many bits.
+   */
+  private long checked(int key) {
+    long unsigned = Integer.toUnsignedLong(key);
+    BitTree.checkKey(unsigned, this.bitLength);
+    return unsigned;
+  } // checked(int)
+
+  /**
+   * A recursive helper method for dumping the tree contents.
+   *
+   * @param link the link to the current node.
+   * @param path the bits on the path so far.
+   * @param depth the number of bits in the path.
+   * @param pen the writer to output the tree's contents.
+   */
+  private void dumpHelper(int link, char[] path, int depth, PrintWriter pen) {
+    if (depth == this.bitLength) {
+      pen.print(path);
+      pen.print(',');
+      pen.println(this.values[link - 1]);
+      return;
+    } // if
+    for (int bit = 0; bit <= 1; bit++) {
+      int child = this.children[2 * link + bit];
+      if (child != 0) {
+        path[depth] = (char) ('0' + bit);
+        dumpHelper(child, path, depth + 1, pen);
+      } // if
+    } // for
+  } // dumpHelper(int, char[], int, PrintWriter)
+
+  /**
+   * A recursive helper method for flattening the tree into a table.
+   *
+   * @param link the link to the current node.
+   * @param key the bits on the path so far.
+   * @param depth the number of bits in the path.
+   * @param table where to put the values.
+   */
+  private void tableHelper(int link, int key, int depth, int[] table) {
+    if (depth == this.bitLength) {
+      table[key] = this.values[link - 1];
+      return;
+    } // if
+    for (int bit = 0; bit <= 1; bit++) {
+      int child = this.children[2 * link + bit];
+      if (child != 0) {
+        tableHelper(child, (key << 1) | bit, depth + 1, table);
+      } // if
+    } // for
+  } // tableHelper(int, int, int, int[])
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Sets the value for the bit sequence given by the low bitLength bits
+   * of a key. The key is treated as unsigned.
+   *
+   * @param key the key.
+   * @param value the value to set.
+   * @throws IndexOutOfBoundsException if the key has more than bitLength bits.
+   */
+  public void set(int key, int value) {
+    long bits = checked(key);
+    int node = 0;
+    for (int i = this.bitLength - 1; i > 0; i--) {
+      int slot = 2 * node + (int) ((bits >>> i) & 1);
+      if (this.children[slot] == 0) {
+        int child = newNode();
+        this.children[slot] = child;
+      } // if
+      node = this.children[slot];
+    } // for
+    int slot = 2 * node + (int) (bits & 1);
+    if (this.children[slot] == 0) {
+      int leaf = newLeaf();
+      this.children[slot] = leaf;
+    } // if
+    this.values[this.children[slot] - 1] = value;
+  } // set(int, int)
+
+  /**
+   * Sets the value for a specific bit sequence.
+   *
+   * @param bits the bit sequence.
+   * @param value the value to set.
+   */
+  public void set(String bits, int value) {
+    set((int) BitTree.parseBits(bits, this.bitLength), value);
+  } // set(String, int)
+
+  /**
+   * Gets the value for the bit sequence given by the low bitLength bits
+   * of a key. The key is treated as unsigned.
+   *
+   * @param key the key.
+   * @return the corresponding value.
+   * @throws IndexOutOfBoundsException if the key has more than bitLength
+   *   bits or names no value.
+   */
+  public int get(int key) {
+    int leaf = find(checked(key));
+    if (leaf < 0) {
+      throw new IndexOutOfBoundsException("Path does not exist.");
+    } // if
+    return this.values[leaf];
+  } // get(int)
+
+  /**
+   * Gets the value for a specific bit sequence.
+   *
+   * @param bits the bit sequence.
+   * @return the corresponding value.
+   */
+  public int get(String bits) {
+    return get((int) BitTree.parseBits(bits, this.bitLength));
+  } // get(String)
+
+  /**
+   * Determines whether a key has a value.
+   *
+   * @param key the key.
+   * @return true if the key has a value, false otherwise.
+   * @throws IndexOutOfBoundsException if the key has more than bitLength bits.
+   */
+  public boolean contains(int key) {
+    return find(checked(key)) >= 0;
+  } // contains(int)
+
+  /**
+   * Gets the value for a key, or a sentinel if the key is out of range or
+   * has no value. Unlike <code>get</code>, this never throws.
+   *
+   * @param key the key.
+   * @param missing the value to return when there is none.
+   * @return the corresponding value, or missing.
+   */
+  public int getOrDefault(int key, int missing) {
+    long unsigned = Integer.toUnsignedLong(key);
+    if ((unsigned >>> this.bitLength) != 0) {
+      return missing;
+    } // if
+    int leaf = find(unsigned);
+    return (leaf < 0) ? missing : this.values[leaf];
+  } // getOrDefault(int, int)
+
+  /**
+   * Gets the number of keys with values.
+   *
+   * @return the number of keys.
+   */
+  public int size() {
+    return this.leafCount;
+  } // size()
+
+  /**
+   * Writes the tree's arrays, so that <code>read</code> can rebuild it
+   * without parsing or inserting anything.
+   *
+   * @param out where to write the tree.
+   * @throws IOException if the tree cannot be written.
+   */
+  void write(DataOutput out) throws IOException {
+    out.writeInt(this.bitLength);
+    out.writeInt(this.nodeCount);
+    out.writeInt(this.leafCount);
+    for (int i = 0; i < 2 * this.nodeCount; i++) {
+      out.writeInt(this.children[i]);
+    } // for
+    for (int i = 0; i < this.leafCount; i++) {
+      out.writeInt(this.values[i]);
+    } // for
+  } // write(DataOutput)
+
+  /**
+   * Flattens the tree into a new array indexed by key, so that a lookup
+   * is a single load. The array is a copy: later changes to the tree do
+   * not show up in it, nor its changes in the tree.
+   *
+   * @param missing the entry for keys with no value.
+   * @return the table, with 2^bitLength entries.
+   * @throws IllegalStateException if keys are longer than 16 bits.
+   */
+  public int[] toTable(int missing) {
+    if (this.bitLength > MAX_TABLE_BITS) {
+      throw new IllegalStateException("Keys longer than 16 bits are too long for a table.");
+    } // if
+    int[] table = new int[1 << this.bitLength];
+    Arrays.fill(table, missing);
+    tableHelper(0, 0, 0, table);
+    return table;
+  } // toTable(int)
+
+  /**
+   * Dumps the tree contents in CSV format, with values in decimal.
+   *
+   * @param pen the writer to output to.
+   */
+  public void dump(PrintWriter pen) {
+    dumpHelper(0, new char[this.bitLength], 0, pen);
+  } // dump(PrintWriter)
+
+  /**
+   * Loads mappings from an input stream.
+   *
+   * @param source the input stream containing bit-value pairs.
+   * @param parser converts the text after the comma into a value.
+   * @throws RuntimeException if an error occurs while reading the stream.
+   */
+  public void load(InputStream source, ToIntFunction<String> parser) {
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(source))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        String[] parts = line.split(",", 2);
+        if (parts.length == 2) {
+          set(parts[0], parser.applyAsInt(parts[1]));
+        } // if
+      } // while
+    } catch (IOException e) {
+      throw new RuntimeException("Error reading from input stream.", e);
+    } // try/catch
+  } // load(InputStream, ToIntFunction)
+} // class IntBitTree
@@ -0,0 +1,199 @@
+package edu.grinnell.csc207.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+
+/**
+ * A read-only BitTree that looks values up directly in a snapshot file
+ * written by <code>BitTree.writeTo</code>, mapped into memory. Nothing is
+ * copied onto the heap but the value being returned, so opening even a
+ * large table is immediate, and every process that maps the same file
+ * shares one copy of it in the page cache. Snapshots are limited to 2GB.
+ *
+ * @author Nicole Moreno Gonzalez
+ */
+public class MappedBitTree {
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The snapshot.
+   */
+  private final BitTreeSnapshot snapshot;
+
+  /**
+   * The length of bit sequences stored in the tree.
+   */
+  private final int bitLength;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Builds a tree over a buffer holding a snapshot.
+   *
+   * @param buffer the snapshot, starting at index 0.
+   * @throws IllegalArgumentException if the buffer does not hold a
+   *   snapshot.
+   */
+  MappedBitTree(ByteBuffer buffer) {
+    this.snapshot = new BitTreeSnapshot(buffer);
+    this.bitLength = this.snapshot.bitLength;
+  } // MappedBitTree(ByteBuffer)
+
+  /**
+   * Maps a snapshot file. The file should not be changed while the tree
+   * is in use.
+   *
+   * @param file the snapshot file.
+   * @return the tree.
+   * @throws IOException if the file cannot be opened or mapped.
+   * @throws IllegalArgumentException if the file does not hold a
+   *   snapshot.
+   */
+  public static MappedBitTree open(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      return new MappedBitTree(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    } // try
+  } // open(Path)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Gets the value for a bit sequence.
+   *
+   * @param bits the bit sequence.
+   * @return the corresponding value, which is null if null was stored.
+   * @throws IndexOutOfBoundsException if the path does not exist or the
+   *   length does not match.
+   * @throws IllegalArgumentException if a character is not a bit.
+   */
+  public String get(String bits) {
+    if (bits.length() != this.bitLength) {
+      throw new IndexOutOfBoundsException("Bit length mismatch.");
+    } // if
+    int link = 0;
+    for (int depth = 0; depth < this.bitLength; depth++) {
+      char bit = bits.charAt(depth);
+      if (bit != '0' && bit != '1') {
+        throw new IllegalArgumentException("Invalid bit: " + bit);
+      } // if
+      link = step(link, bit - '0');
+    } // for
+    return value(link);
+  } // get(String)
+
+  /**
+   * Gets the value for the bit sequence given by the low bitLength bits
+   * of a key, most significant bit first. The key is treated as unsigned.
+   *
+   * @param key the key.
+   * @return the corresponding value, which is null if null was stored.
+   * @throws IndexOutOfBoundsException if the key has more than bitLength
+   *   bits or names no value.
+   */
+  public String get(int key) {
+    return get(Integer.toUnsignedLong(key));
+  } // get(int)
+
+  /**
+   * Gets the value for the bit sequence given by a long key, most
+   * significant bit first.
+   *
+   * @param key the key.
+   * @return the corresponding value, which is null if null was stored.
+   * @throws IndexOutOfBoundsException if the key has more than bitLength
+   *   bits or names no value.
+   * @throws IllegalStateException if the tree holds keys of more than 64
+   *   bits.
+   */
+  public String get(long key) {
+    BitTree.checkKey(key, this.bitLength);
+    int link = 0;
+    for (int depth = this.bitLength - 1; depth >= 0; depth--) {
+      link = step(link, (int) (key >>> depth) & 1);
+    } // for
+    return value(link);
+  } // get(long)
+
+  /**
+   * Gets the value for the bit sequence given by a BitSet, in which bit
+   * i has weight 2<sup>i</sup>, so that bit bitLength - 1 comes first.
+   *
+   * @param key the key.
+   * @return the corresponding value, which is null if null was stored.
+   * @throws IndexOutOfBoundsException if the key has more than bitLength
+   *   bits or names no value.
+   */
+  public String get(BitSet key) {
+    if (key.length() > this.bitLength) {
+      throw new IndexOutOfBoundsException("Key out of range.");
+    } // if
+    int link = 0;
+    for (int depth = this.bitLength - 1; depth >= 0; depth--) {
+      link = step(link, key.get(depth) ? 1 : 0);
+    } // for
+    return value(link);
+  } // get(BitSet)
+
+  /**
+   * Gets the number of values in the tree.
+   *
+   * @return the number of values.
+   */
+  public int size() {
+    return this.snapshot.leafCount;
+  } // size()
+
+  /**
+   * Gets the length of the keys.
+   *
+   * @return the bit length.
+   */
+  public int bitLength() {
+    return this.bitLength;
+  } // bitLength()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Follows one link.
+   *
+   * @param node the interior node to follow it from.
+   * @param bit the bit.
+   * @return the link.
+   * @throws IndexOutOfBoundsException if there is no link.
+   */
+  private int step(int node, int bit) {
+    int link = this.snapshot.child(node, bit);
+    if (link == 0) {
+      throw new IndexOutOfBoundsException("Path does not exist.");
+    } // if
+    return link;
+  } // step(int, int)
+
+  /**
+   * Gets the value at the end of a path.
+   *
+   * @param link the last link followed.
+   * @return the value.
+   * @throws IndexOutOfBoundsException if the link is not to a leaf.
+   */
+  private String value(int link) {
+    if (link >= 0) {
+      throw new IndexOutOfBoundsException("Path does not exist.");
+    } // if
+    return this.snapshot.value(-link - 1);
+  } // value(int)
+} // class MappedBitTree
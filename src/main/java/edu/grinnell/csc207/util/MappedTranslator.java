@@ -0,0 +1,276 @@
+package edu.grinnell.csc207.util;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * File-to-file translation between ASCII text and Braille bit strings
+ * that works directly on memory-mapped files, a window at a time, so
+ * that inputs of any size are translated without copying them through
+ * readers or strings. Bits are written as the ASCII bytes '0' and '1',
+ * Unicode output is UTF-8, and line breaks are copied through unchanged.
+ *
+ * @author Nicole Moreno Gonzalez
+ */
+public class MappedTranslator {
+
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The number of bytes mapped at a time.
+   */
+  private static final int WINDOW_SIZE = 1 << 26;
+
+  /**
+   * The number of bits in a Braille character.
+   */
+  private static final int BRAILLE_BITS = 6;
+
+  /**
+   * Translate ASCII to Braille.
+   */
+  private static final int TO_BRAILLE = 0;
+
+  /**
+   * Translate Braille to ASCII.
+   */
+  private static final int TO_ASCII = 1;
+
+  /**
+   * Translate Braille to Unicode.
+   */
+  private static final int TO_UNICODE = 2;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The file we are writing.
+   */
+  private final FileChannel target;
+
+  /**
+   * The currently mapped part of the output.
+   */
+  private MappedByteBuffer window;
+
+  /**
+   * The offset in the output file of the start of the window.
+   */
+  private long windowStart;
+
+  /**
+   * The bits of the Braille chunk read so far.
+   */
+  private int chunk;
+
+  /**
+   * The number of bits in the chunk read so far.
+   */
+  private int chunkBits;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Constructs a translator that writes to a file.
+   *
+   * @param target the file to write.
+   * @param expectedSize the expected size of the output, used to size
+   *   the first window.
+   * @throws IOException if the file cannot be mapped.
+   */
+  private MappedTranslator(FileChannel target, long expectedSize) throws IOException {
+    this.target = target;
+    this.windowStart = 0;
+    this.window = target.map(FileChannel.MapMode.READ_WRITE, 0,
+        Math.max(1, Math.min(expectedSize, WINDOW_SIZE)));
+  } // MappedTranslator(FileChannel, long)
+
+  // +---------------+-----------------------------------------------
+  // | Local helpers |
+  // +---------------+
+
+  /**
+   * Writes one byte of output, mapping the next window when the current
+   * one is full.
+   *
+   * @param b the byte.
+   * @throws IOException if the next window cannot be mapped.
+   */
+  private void put(int b) throws IOException {
+    if (!this.window.hasRemaining()) {
+      this.windowStart += this.window.position();
+      this.window = this.target.map(FileChannel.MapMode.READ_WRITE, this.windowStart, WINDOW_SIZE);
+    } // if
+    this.window.put((byte) b);
+  } // put(int)
+
+  /**
+   * Gets the number of bytes written so far.
+   *
+   * @return the number of bytes written.
+   */
+  private long written() {
+    return this.windowStart + this.window.position();
+  } // written()
+
+  /**
+   * Translates one window of input.
+   *
+   * @param direction which translation to do.
+   * @param in the mapped input.
+   * @param offset the offset of the window in the input file.
+   * @throws IOException if the output cannot be mapped.
+   */
+  private void translate(int direction, MappedByteBuffer in, long offset) throws IOException {
+    while (in.hasRemaining()) {
+      int b = in.get() & 0xFF;
+      if (b == '\n' || b == '\r') {
+        finishLine(offset + in.position() - 1);
+        put(b);
+      } else if (direction == TO_BRAILLE) {
+        int bits = BrailleAsciiTables.brailleFor(b);
+        for (int i = BRAILLE_BITS - 1; i >= 0; i--) {
+          put('0' + ((bits >>> i) & 1));
+        } // for
+      } else {
+        if (b != '0' && b != '1') {
+          throw new IllegalArgumentException("Invalid bit '" + (char) b + "' at byte "
+              + (offset + in.position() - 1));
+        } // if
+        this.chunk = (this.chunk << 1) | (b - '0');
+        if (++this.chunkBits == BRAILLE_BITS) {
+          if (direction == TO_ASCII) {
+            put(BrailleAsciiTables.asciiFor(this.chunk));
+          } else {
+            int codePoint = BrailleAsciiTables.unicodeFor(this.chunk);
+            put(0xE0 | (codePoint >>> 12));
+            put(0x80 | ((codePoint >>> 6) & 0x3F));
+            put(0x80 | (codePoint & 0x3F));
+          } // if/else
+          this.chunk = 0;
+          this.chunkBits = 0;
+        } // if
+      } // if/else
+    } // while
+  } // translate(int, MappedByteBuffer, long)
+
+  /**
+   * Makes sure that no partial Braille chunk is pending at the end of a
+   * line or of the input.
+   *
+   * @param offset the offset in the input, for error messages.
+   */
+  private void finishLine(long offset) {
+    if (this.chunkBits != 0) {
+      throw new IllegalArgumentException("Invalid bits: " + this.chunkBits
+          + " leftover bits before byte " + offset);
+    } // if
+  } // finishLine(long)
+
+  /**
+   * Translates one file into another.
+   *
+   * @param direction which translation to do.
+   * @param source the file to read.
+   * @param destination the file to write, replaced if it exists, and
+   *   removed if the translation fails.
+   * @return the number of bytes written.
+   * @throws IOException if either file cannot be opened or mapped.
+   */
+  private static long translate(int direction, Path source, Path destination) throws IOException {
+    try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+        FileChannel out = FileChannel.open(destination, StandardOpenOption.READ,
+            StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      long size = in.size();
+      // Exact unless the input contains line breaks.
+      long expected = switch (direction) {
+        case TO_BRAILLE -> size * BRAILLE_BITS;
+        case TO_ASCII -> size / BRAILLE_BITS;
+        default -> size / BRAILLE_BITS * 3;
+      }; // switch
+      MappedTranslator translator = new MappedTranslator(out, expected);
+      try {
+        for (long offset = 0; offset < size; offset += WINDOW_SIZE) {
+          MappedByteBuffer window =
+              in.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(WINDOW_SIZE, size - offset));
+          translator.translate(direction, window, offset);
+        } // for
+        translator.finishLine(size);
+      } finally {
+        // Never leave the zero padding of the last window behind.
+        out.truncate(translator.written());
+      } // try/finally
+      return translator.written();
+    } catch (RuntimeException | IOException e) {
+      // A partial translation would pass for a whole one.
+      try {
+        Files.deleteIfExists(destination);
+      } catch (IOException suppressed) {
+        e.addSuppressed(suppressed);
+      } // try/catch
+      throw e;
+    } // try/catch
+  } // translate(int, Path, Path)
+
+  // +----------------+----------------------------------------------
+  // | Static methods |
+  // +----------------+
+
+  /**
+   * Translates a file of ASCII text into a file of Braille bits.
+   *
+   * @param source the file to read.
+   * @param destination the file to write, replaced if it exists, and
+   *   removed if the translation fails.
+   * @return the number of bytes written.
+   * @throws IOException if either file cannot be opened or mapped.
+   * @throws IndexOutOfBoundsException if a character has no Braille
+   *   equivalent.
+   */
+  public static long toBraille(Path source, Path destination) throws IOException {
+    return translate(TO_BRAILLE, source, destination);
+  } // toBraille(Path, Path)
+
+  /**
+   * Translates a file of Braille bits into a file of ASCII text.
+   *
+   * @param source the file to read.
+   * @param destination the file to write, replaced if it exists, and
+   *   removed if the translation fails.
+   * @return the number of bytes written.
+   * @throws IOException if either file cannot be opened or mapped.
+   * @throws IllegalArgumentException if the input has a byte other than a
+   *   bit or line break, or a line ends with a partial chunk.
+   * @throws IndexOutOfBoundsException if a chunk has no ASCII equivalent.
+   */
+  public static long toAscii(Path source, Path destination) throws IOException {
+    return translate(TO_ASCII, source, destination);
+  } // toAscii(Path, Path)
+
+  /**
+   * Translates a file of Braille bits into a file of UTF-8 Unicode
+   * Braille characters.
+   *
+   * @param source the file to read.
+   * @param destination the file to write, replaced if it exists, and
+   *   removed if the translation fails.
+   * @return the number of bytes written.
+   * @throws IOException if either file cannot be opened or mapped.
+   * @throws IllegalArgumentException if the input has a byte other than a
+   *   bit or line break, or a line ends with a partial chunk.
+   */
+  public static long toUnicode(Path source, Path destination) throws IOException {
+    return translate(TO_UNICODE, source, destination);
+  } // toUnicode(Path, Path)
+} // class MappedTranslator
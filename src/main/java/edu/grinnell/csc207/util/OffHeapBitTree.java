@@ -0,0 +1,398 @@
+package edu.grinnell.csc207.util;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * A BitTree of strings kept outside the Java heap, for tables with tens
+ * of millions of leaves. Nodes are pairs of int child links, leaves are
+ * packed pool addresses, and values are UTF-8 bytes in a pool, all in
+ * direct buffers allocated a slab at a time. The heap holds only the
+ * arrays of slabs, so its footprint barely grows with the table, and the
+ * garbage collector has no nodes to trace.
+ *
+ * <p>Replacing a value appends the new bytes to the pool; the old ones
+ * are not reclaimed until the tree is closed. Not thread-safe.
+ *
+ * @author Nicole Moreno Gonzalez
+ */
+public class OffHeapBitTree implements AutoCloseable {
+
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The size of each slab, in bytes. A power of two.
+   */
+  static final int SLAB_BYTES = 1 << 22;
+
+  /**
+   * The number of low bits of a leaf entry that hold the value length.
+   */
+  private static final int LENGTH_BITS = 23;
+
+  /**
+   * The length that marks a null value. Longer than any slab, so no real
+   * value has it.
+   */
+  private static final int NULL_LENGTH = (1 << LENGTH_BITS) - 1;
+
+  /**
+   * The bytes for each node (two int links) and each leaf (one long).
+   */
+  private static final int ENTRY_BYTES = 8;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The length of bit sequences stored in the tree.
+   */
+  private final int bitLength;
+
+  /**
+   * The interior nodes, two int links each: 0 if absent, a node index in
+   * the levels above the last, -(leaf index + 1) in the last. Node 0 is
+   * the root. Null once the tree is closed.
+   */
+  private ByteBuffer[] nodes;
+
+  /**
+   * The number of interior nodes.
+   */
+  private int nodeCount;
+
+  /**
+   * The leaves, each the pool address of its value shifted left by
+   * LENGTH_BITS, plus the value's length in bytes (NULL_LENGTH for null).
+   */
+  private ByteBuffer[] leaves;
+
+  /**
+   * The number of leaves.
+   */
+  private int leafCount;
+
+  /**
+   * The value bytes. A value never spans two slabs.
+   */
+  private ByteBuffer[] pool;
+
+  /**
+   * The address of the next free byte in the pool.
+   */
+  private long poolSize;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Constructs a new tree for sequences of a given length.
+   *
+   * @param n the length of bit sequences, at most 64.
+   */
+  public OffHeapBitTree(int n) {
+    if (n < 1 || n > BitTree.LONG_BITS) {
+      throw new IllegalArgumentException("Bit length must be between 1 and 64.");
+    } // if
+    this.bitLength = n;
+    this.nodes = new ByteBuffer[0];
+    this.leaves = new ByteBuffer[0];
+    this.pool = new ByteBuffer[0];
+    newNode();
+  } // OffHeapBitTree(int)
+
+  // +---------------+-----------------------------------------------
+  // | Local helpers |
+  // +---------------+
+
+  /**
+   * Makes sure that the slab holding a byte has been allocated. Slabs
+   * are allocated only when first touched.
+   *
+   * @param slabs the slabs.
+   * @param address the address of the byte.
+   * @return the slabs, possibly a longer array.
+   */
+  private static ByteBuffer[] reserve(ByteBuffer[] slabs, long address) {
+    int slab = (int) (address / SLAB_BYTES);
+    if (slab >= slabs.length) {
+      slabs = Arrays.copyOf(slabs, Math.max(slab + 1, 2 * slabs.length));
+    } // if
+    if (slabs[slab] == null) {
+      slabs[slab] = ByteBuffer.allocateDirect(SLAB_BYTES).order(ByteOrder.nativeOrder());
+    } // if
+    return slabs;
+  } // reserve(ByteBuffer[], long)
+
+  /**
+   * Gets one link of a node.
+   *
+   * @param node the node.
+   * @param bit the bit.
+   * @return the link.
+   */
+  private int link(int node, int bit) {
+    long address = (long) node * ENTRY_BYTES + bit * Integer.BYTES;
+    return this.nodes[(int) (address / SLAB_BYTES)].getInt((int) (address % SLAB_BYTES));
+  } // link(int, int)
+
+  /**
+   * Sets one link of a node.
+   *
+   * @param node the node.
+   * @param bit the bit.
+   * @param link the link.
+   */
+  private void setLink(int node, int bit, int link) {
+    long address = (long) node * ENTRY_BYTES + bit * Integer.BYTES;
+    this.nodes[(int) (address / SLAB_BYTES)].putInt((int) (address % SLAB_BYTES), link);
+  } // setLink(int, int, int)
+
+  /**
+   * Adds a node with no children.
+   *
+   * @return the index of the new node.
+   */
+  private int newNode() {
+    long address = (long) this.nodeCount * ENTRY_BYTES;
+    this.nodes = reserve(this.nodes, address);
+    this.nodes[(int) (address / SLAB_BYTES)].putLong((int) (address % SLAB_BYTES), 0);
+    return this.nodeCount++;
+  } // newNode()
+
+  /**
+   * Stores a value in the pool and points a leaf at it.
+   *
+   * @param leaf the leaf.
+   * @param value the value, which may be null.
+   * @throws IllegalArgumentException if the value does not fit in a slab.
+   */
+  private void store(int leaf, String value) {
+    byte[] bytes = (value == null) ? new byte[0] : value.getBytes(UTF_8);
+    if (bytes.length > SLAB_BYTES) {
+      throw new IllegalArgumentException("Value too long.");
+    } // if
+    long start = this.poolSize;
+    // An empty value needs no pool bytes, and so no slab.
+    if (bytes.length > 0) {
+      if (start / SLAB_BYTES != (start + bytes.length - 1) / SLAB_BYTES) {
+        start = (start / SLAB_BYTES + 1) * SLAB_BYTES;
+      } // if
+      this.pool = reserve(this.pool, start);
+      this.pool[(int) (start / SLAB_BYTES)].put((int) (start % SLAB_BYTES), bytes);
+      this.poolSize = start + bytes.length;
+    } // if
+    long address = (long) leaf * ENTRY_BYTES;
+    this.leaves = reserve(this.leaves, address);
+    this.leaves[(int) (address / SLAB_BYTES)].putLong((int) (address % SLAB_BYTES),
+        (start << LENGTH_BITS) | ((value == null) ? NULL_LENGTH : bytes.length));
+  } // store(int, String)
+
+  /**
+   * Reads the value of a leaf from the pool.
+   *
+   * @param leaf the leaf.
+   * @return the value, which may be null.
+   */
+  private String value(int leaf) {
+    long address = (long) leaf * ENTRY_BYTES;
+    long entry = this.leaves[(int) (address / SLAB_BYTES)].getLong((int) (address % SLAB_BYTES));
+    long start = entry >>> LENGTH_BITS;
+    int length = (int) (entry & NULL_LENGTH);
+    if (length == NULL_LENGTH) {
+      return null;
+    } else if (length == 0) {
+      return "";
+    } // if/else
+    byte[] bytes = new byte[length];
+    this.pool[(int) (start / SLAB_BYTES)].get((int) (start % SLAB_BYTES), bytes);
+    return new String(bytes, UTF_8);
+  } // value(int)
+
+  /**
+   * Ensures that the tree has not been closed.
+   *
+   * @throws IllegalStateException if it has.
+   */
+  private void checkOpen() {
+    if (this.nodes == null) {
+      throw new IllegalStateException("Tree is closed.");
+    } // if
+  } // checkOpen()
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Sets the value for a specific bit sequence.
+   *
+   * @param bits the bit sequence.
+   * @param value the value to set.
+   */
+  public void set(String bits, String value) {
+    set(BitTree.parseBits(bits, this.bitLength), value);
+  } // set(String, String)
+
+  /**
+   * Sets the value for the bit sequence given by the low bitLength bits
+   * of a key. The key is treated as unsigned.
+   *
+   * @param key the key.
+   * @param value the value to set.
+   */
+  public void set(int key, String value) {
+    set(Integer.toUnsignedLong(key), value);
+  } // set(int, String)
+
+  /**
+   * Sets the value for the bit sequence given by the low bitLength bits
+   * of a key. The key is treated as unsigned.
+   *
+   * @param key the key.
+   * @param value the value to set, which may be null.
+   * @throws IllegalArgumentException if the value is longer than a slab.
+   * @throws IllegalStateException if the tree has been closed.
+   */
+  public void set(long key, String value) {
+    checkOpen();
+    BitTree.checkKey(key, this.bitLength);
+    int node = 0;
+    for (int i = this.bitLength - 1; i > 0; i--) {
+      int bit = (int) (key >>> i) & 1;
+      int child = link(node, bit);
+      if (child == 0) {
+        child = newNode();
+        setLink(node, bit, child);
+      } // if
+      node = child;
+    } // for
+    int bit = (int) key & 1;
+    int leaf = -link(node, bit) - 1;
+    if (leaf < 0) {
+      leaf = this.leafCount++;
+      setLink(node, bit, -(leaf + 1));
+    } // if
+    store(leaf, value);
+  } // set(long, String)
+
+  /**
+   * Gets the value for a specific bit sequence.
+   *
+   * @param bits the bit sequence.
+   * @return the corresponding value.
+   */
+  public String get(String bits) {
+    return get(BitTree.parseBits(bits, this.bitLength));
+  } // get(String)
+
+  /**
+   * Gets the value for the bit sequence given by the low bitLength bits
+   * of a key. The key is treated as unsigned.
+   *
+   * @param key the key.
+   * @return the corresponding value.
+   */
+  public String get(int key) {
+    return get(Integer.toUnsignedLong(key));
+  } // get(int)
+
+  /**
+   * Gets the value for the bit sequence given by the low bitLength bits
+   * of a key. The key is treated as unsigned.
+   *
+   * @param key the key.
+   * @return the corresponding value, which is null if null was stored.
+   * @throws IndexOutOfBoundsException if the key has more than bitLength
+   *   bits or names no value.
+   * @throws IllegalStateException if the tree has been closed.
+   */
+  public String get(long key) {
+    checkOpen();
+    BitTree.checkKey(key, this.bitLength);
+    int link = 0;
+    for (int i = this.bitLength - 1; i >= 0; i--) {
+      link = link(link, (int) (key >>> i) & 1);
+      if (link == 0) {
+        throw new IndexOutOfBoundsException("Path does not exist.");
+      } // if
+    } // for
+    return value(-link - 1);
+  } // get(long)
+
+  /**
+   * Gets the number of values in the tree.
+   *
+   * @return the number of values.
+   */
+  public int size() {
+    return this.leafCount;
+  } // size()
+
+  /**
+   * Gets the number of pool slabs allocated so far.
+   *
+   * @return the number of slabs.
+   */
+  int poolSlabs() {
+    return (int) Arrays.stream(this.pool).filter((slab) -> slab != null).count();
+  } // poolSlabs()
+
+  /**
+   * Dumps the tree contents in CSV format.
+   *
+   * @param pen the writer to output to.
+   * @throws IllegalStateException if the tree has been closed.
+   */
+  public void dump(PrintWriter pen) {
+    checkOpen();
+    // An explicit stack, with one entry per level: the node, and the
+    // next of its links to follow.
+    int[] stack = new int[this.bitLength];
+    int[] next = new int[this.bitLength];
+    char[] path = new char[this.bitLength];
+    int depth = 0;
+    while (depth >= 0) {
+      if (next[depth] == 2) {
+        depth--;
+        continue;
+      } // if
+      int bit = next[depth]++;
+      int link = link(stack[depth], bit);
+      path[depth] = (char) ('0' + bit);
+      if (link < 0) {
+        pen.print(path);
+        pen.print(',');
+        pen.println(value(-link - 1));
+      } else if (link > 0) {
+        depth++;
+        stack[depth] = link;
+        next[depth] = 0;
+      } // if/else
+    } // while
+  } // dump(PrintWriter)
+
+  /**
+   * Releases the tree's storage. Java 17 cannot free a direct buffer on
+   * demand, so this drops every reference to the slabs and leaves their
+   * memory to be returned at the next collection; any further use of the
+   * tree fails rather than touching it.
+   */
+  @Override
+  public void close() {
+    this.nodes = null;
+    this.leaves = null;
+    this.pool = null;
+    this.nodeCount = 0;
+    this.leafCount = 0;
+    this.poolSize = 0;
+  } // close()
+} // class OffHeapBitTree
@@ -0,0 +1,277 @@
+package edu.grinnell.csc207.util;
+
+import java.nio.CharBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Translates large texts by splitting them into pieces on character or
+ * Braille chunk boundaries and translating the pieces on a fork/join
+ * pool. Since every character (or chunk) translates to a fixed number of
+ * output characters, each piece writes straight into its own part of the
+ * result, so nothing has to be stitched together afterwards.
+ *
+ * @author Nicole Moreno Gonzalez
+ */
+public class ParallelTranslator implements AutoCloseable {
+
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The default number of input characters below which we translate on
+   * the calling thread.
+   */
+  public static final int DEFAULT_CUTOFF = 1 << 16;
+
+  /**
+   * The number of bits in a Braille character.
+   */
+  private static final int BRAILLE_BITS = 6;
+
+  /**
+   * The longest output we can build, since arrays and strings are
+   * indexed by int and JVMs reserve a few header words.
+   */
+  private static final int MAX_OUTPUT_LENGTH = Integer.MAX_VALUE - 8;
+
+  /**
+   * Translate ASCII to Braille.
+   */
+  private static final int TO_BRAILLE = 0;
+
+  /**
+   * Translate Braille to ASCII.
+   */
+  private static final int TO_ASCII = 1;
+
+  /**
+   * Translate Braille to Unicode.
+   */
+  private static final int TO_UNICODE = 2;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The pool that does the work.
+   */
+  private final ForkJoinPool pool;
+
+  /**
+   * The size of the pieces, in input characters, that are no longer split.
+   */
+  private final int cutoff;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Constructs a translator with its own pool.
+   *
+   * @param parallelism the number of worker threads.
+   * @param cutoff the number of input characters below which a piece is
+   *   translated without further splitting.
+   */
+  public ParallelTranslator(int parallelism, int cutoff) {
+    if (cutoff < BRAILLE_BITS) {
+      throw new IllegalArgumentException("Cutoff must be at least " + BRAILLE_BITS);
+    } // if
+    this.pool = new ForkJoinPool(parallelism);
+    this.cutoff = cutoff;
+  } // ParallelTranslator(int, int)
+
+  /**
+   * Constructs a translator with one worker per processor and the default
+   * cutoff.
+   */
+  public ParallelTranslator() {
+    this(Runtime.getRuntime().availableProcessors(), DEFAULT_CUTOFF);
+  } // ParallelTranslator()
+
+  // +---------------+-----------------------------------------------
+  // | Local helpers |
+  // +---------------+
+
+  /**
+   * Translates a whole text.
+   *
+   * @param direction which translation to do.
+   * @param source the text.
+   * @return the translation.
+   */
+  private String translate(int direction, CharSequence source) {
+    int length = source.length();
+    if (direction != TO_BRAILLE && length % BRAILLE_BITS != 0) {
+      throw new IllegalArgumentException("Invalid bits: input ends with "
+          + (length % BRAILLE_BITS) + " leftover bits");
+    } // if
+    char[] result = new char[outputLength(direction, length)];
+    Piece whole = new Piece(direction, source, 0, length, result, this.cutoff);
+    if (length < this.cutoff) {
+      whole.compute();
+    } else {
+      this.pool.invoke(whole);
+    } // if/else
+    return new String(result);
+  } // translate(int, CharSequence)
+
+  /**
+   * Determines how many characters a piece of input translates to.
+   *
+   * @param direction which translation to do.
+   * @param inputLength the number of input characters.
+   * @return the number of output characters.
+   * @throws IllegalArgumentException if the output would be too long to
+   *   hold in a string.
+   */
+  static int outputLength(int direction, int inputLength) {
+    long length = (direction == TO_BRAILLE)
+        ? (long) inputLength * BRAILLE_BITS : inputLength / BRAILLE_BITS;
+    if (length > MAX_OUTPUT_LENGTH) {
+      throw new IllegalArgumentException("Input too long: " + inputLength
+          + " characters translate to " + length + ", more than a string can hold");
+    } // if
+    return (int) length;
+  } // outputLength(int, int)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Converts ASCII text to Braille bits.
+   *
+   * @param source the ASCII text.
+   * @return the Braille bits.
+   * @throws IllegalArgumentException if the bits would be too long to
+   *   hold in a string.
+   * @throws IndexOutOfBoundsException if a character has no Braille
+   *   equivalent.
+   */
+  public String toBraille(CharSequence source) {
+    return translate(TO_BRAILLE, source);
+  } // toBraille(CharSequence)
+
+  /**
+   * Converts Braille bits to ASCII text.
+   *
+   * @param source the Braille bits, six per character.
+   * @return the ASCII text.
+   * @throws IllegalArgumentException if the bits are not all 0 and 1 or
+   *   end with a partial chunk.
+   * @throws IndexOutOfBoundsException if a chunk has no ASCII equivalent.
+   */
+  public String toAscii(CharSequence source) {
+    return translate(TO_ASCII, source);
+  } // toAscii(CharSequence)
+
+  /**
+   * Converts Braille bits to Unicode Braille characters.
+   *
+   * @param source the Braille bits, six per character.
+   * @return the Unicode Braille text.
+   * @throws IllegalArgumentException if the bits are not all 0 and 1 or
+   *   end with a partial chunk.
+   */
+  public String toUnicode(CharSequence source) {
+    return translate(TO_UNICODE, source);
+  } // toUnicode(CharSequence)
+
+  /**
+   * Shuts down the pool.
+   */
+  @Override
+  public void close() {
+    this.pool.shutdown();
+  } // close()
+
+  // +---------------+-----------------------------------------------
+  // | Inner classes |
+  // +---------------+
+
+  /**
+   * One piece of a translation.
+   */
+  @SuppressWarnings("serial")
+  private static class Piece extends RecursiveAction {
+
+    /**
+     * Which translation to do.
+     */
+    private final int direction;
+
+    /**
+     * The whole input.
+     */
+    private final CharSequence source;
+
+    /**
+     * The index of the first input character in this piece.
+     */
+    private final int start;
+
+    /**
+     * The index just past the last input character in this piece.
+     */
+    private final int end;
+
+    /**
+     * The whole output.
+     */
+    private final char[] result;
+
+    /**
+     * The size of pieces that are no longer split.
+     */
+    private final int cutoff;
+
+    /**
+     * Constructs a piece.
+     *
+     * @param direction which translation to do.
+     * @param source the whole input.
+     * @param start the index of the first input character.
+     * @param end the index just past the last input character.
+     * @param result the whole output.
+     * @param cutoff the size of pieces that are no longer split.
+     */
+    Piece(int direction, CharSequence source, int start, int end, char[] result, int cutoff) {
+      this.direction = direction;
+      this.source = source;
+      this.start = start;
+      this.end = end;
+      this.result = result;
+      this.cutoff = cutoff;
+    } // Piece(int, CharSequence, int, int, char[], int)
+
+    /**
+     * Translates this piece, splitting it in two if it is at least
+     * cutoff characters long.
+     */
+    @Override
+    protected void compute() {
+      int length = this.end - this.start;
+      // Halves fall on chunk boundaries, so a single chunk cannot split.
+      int unit = (this.direction == TO_BRAILLE) ? 1 : BRAILLE_BITS;
+      int middle = this.start + (length / 2) / unit * unit;
+      if (length < this.cutoff || middle == this.start) {
+        CharBuffer in = CharBuffer.wrap(this.source, this.start, this.end);
+        CharBuffer out = CharBuffer.wrap(this.result,
+            outputLength(this.direction, this.start), outputLength(this.direction, length));
+        switch (this.direction) {
+          case TO_BRAILLE -> BrailleAsciiTables.translateToBraille(in, out);
+          case TO_ASCII -> BrailleAsciiTables.translateToAscii(in, out);
+          default -> BrailleAsciiTables.translateToUnicode(in, out);
+        } // switch
+        return;
+      } // if
+      invokeAll(
+          new Piece(this.direction, this.source, this.start, middle, this.result, this.cutoff),
+          new Piece(this.direction, this.source, middle, this.end, this.result, this.cutoff));
+    } // compute()
+  } // class Piece
+} // class ParallelTranslator
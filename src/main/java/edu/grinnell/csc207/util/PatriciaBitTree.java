@@ -0,0 +1,398 @@
+package edu.grinnell.csc207.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.util.function.Function;
+
+/**
+ * A path-compressed (Patricia, or radix) BitTree for long, sparse keys.
+ * Where a BitTree has one node per bit, each node here stands for a run
+ * of bits (its span) along which there is no branching, so the number of
+ * nodes and the depth of a lookup depend on the number of entries rather
+ * than on the length of the keys.
+ *
+ * @param <V> the type of values stored in the tree.
+ *
+ * @author Nicole Moreno Gonzalez
+ */
+public class PatriciaBitTree<V> {
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The root of the tree, or null if the tree is empty.
+   */
+  private Node root;
+
+  /**
+   * The length of bit sequences stored in the tree.
+   */
+  private final int bitLength;
+
+  /**
+   * The number of entries.
+   */
+  private int size;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Constructs a new tree for sequences of a given length.
+   *
+   * @param n the length of bit sequences, between 1 and 64.
+   */
+  public PatriciaBitTree(int n) {
+    if (n < 1 || n > BitTree.LONG_BITS) {
+      throw new IllegalArgumentException("Bit length must be between 1 and 64.");
+    } // if
+    this.bitLength = n;
+    this.root = null;
+    this.size = 0;
+  } // PatriciaBitTree(int)
+
+  // +---------------+-----------------------------------------------
+  // | Local helpers |
+  // +---------------+
+
+  /**
+   * Extracts some of the bits of a key.
+   *
+   * @param key the key.
+   * @param from the depth of the first bit wanted.
+   * @param length the number of bits wanted.
+   * @return those bits, right-aligned.
+   */
+  private long span(long key, int from, int length) {
+    if (length == 0) {
+      return 0;
+    } // if
+    return (key >>> (this.bitLength - from - length)) & mask(length);
+  } // span(long, int, int)
+
+  /**
+   * Makes a mask of low-order bits.
+   *
+   * @param length the number of bits, between 0 and 64.
+   * @return a long with the low length bits set.
+   */
+  private static long mask(int length) {
+    return (length == BitTree.LONG_BITS) ? -1L : (1L << length) - 1;
+  } // mask(int)
+
+  /**
+   * Makes a leaf for the rest of a key.
+   *
+   * @param key the key.
+   * @param depth the depth at which the leaf starts.
+   * @param value the value.
+   * @return the new leaf.
+   */
+  private Node leaf(long key, int depth, V value) {
+    Node node = new Node(span(key, depth, this.bitLength - depth), this.bitLength - depth);
+    node.value = value;
+    this.size++;
+    return node;
+  } // leaf(long, int, V)
+
+  /**
+   * Sets the value at the path named by a key, splitting a span where the
+   * key leaves it.
+   *
+   * @param key the key, already checked.
+   * @param value the value.
+   */
+  private void setAt(long key, V value) {
+    if (this.root == null) {
+      this.root = leaf(key, 0, value);
+      return;
+    } // if
+    Node parent = null;
+    Node node = this.root;
+    int depth = 0;
+    while (true) {
+      long bits = span(key, depth, node.length);
+      if (bits != node.bits) {
+        // Split the span where the key leaves it.
+        int common = Long.numberOfLeadingZeros(bits ^ node.bits)
+            - (BitTree.LONG_BITS - node.length);
+        int rest = node.length - common;
+        Node split = new Node((common == 0) ? 0 : node.bits >>> rest, common);
+        node.bits &= mask(rest);
+        node.length = rest;
+        Node fresh = leaf(key, depth + common, value);
+        if (((bits >>> (rest - 1)) & 1) == 0) {
+          split.left = fresh;
+          split.right = node;
+        } else {
+          split.left = node;
+          split.right = fresh;
+        } // if/else
+        replace(parent, node, split);
+        return;
+      } // if
+      depth += node.length;
+      if (depth == this.bitLength) {
+        node.value = value;
+        return;
+      } // if
+      boolean zero = span(key, depth, 1) == 0;
+      Node child = zero ? node.left : node.right;
+      if (child == null) {
+        child = leaf(key, depth, value);
+        if (zero) {
+          node.left = child;
+        } else {
+          node.right = child;
+        } // if/else
+        return;
+      } // if
+      parent = node;
+      node = child;
+    } // while
+  } // setAt(long, V)
+
+  /**
+   * Replaces the child of a node.
+   *
+   * @param parent the parent, or null if the child is the root.
+   * @param child the current child.
+   * @param replacement the new child.
+   */
+  private void replace(Node parent, Node child, Node replacement) {
+    if (parent == null) {
+      this.root = replacement;
+    } else if (parent.left == child) {
+      parent.left = replacement;
+    } else {
+      parent.right = replacement;
+    } // if/else
+  } // replace(Node, Node, Node)
+
+  /**
+   * Gets the value at the path named by a key.
+   *
+   * @param key the key, already checked.
+   * @return the stored value.
+   */
+  @SuppressWarnings("unchecked")
+  private V getAt(long key) {
+    Node node = this.root;
+    int depth = 0;
+    while (node != null) {
+      if (span(key, depth, node.length) != node.bits) {
+        break;
+      } // if
+      depth += node.length;
+      if (depth == this.bitLength) {
+        return (V) node.value;
+      } // if
+      node = (span(key, depth, 1) == 0) ? node.left : node.right;
+    } // while
+    throw new IndexOutOfBoundsException("Path does not exist.");
+  } // getAt(long)
+
+  /**
+   * A recursive helper method for dumping the tree contents.
+   *
+   * @param node the current node being processed.
+   * @param path the bits on the path so far.
+   * @param depth the number of bits in the path.
+   * @param pen the writer to output the tree's contents.
+   */
+  private void dumpHelper(Node node, char[] path, int depth, PrintWriter pen) {
+    if (node == null) {
+      return;
+    } // if
+    for (int i = 0; i < node.length; i++) {
+      path[depth + i] = (char) ('0' + ((node.bits >>> (node.length - 1 - i)) & 1));
+    } // for
+    depth += node.length;
+    if (depth == this.bitLength) {
+      pen.print(path);
+      pen.println("," + node.value);
+    } else {
+      dumpHelper(node.left, path, depth, pen);
+      dumpHelper(node.right, path, depth, pen);
+    } // if/else
+  } // dumpHelper(Node, char[], int, PrintWriter)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Sets the value for a specific bit sequence.
+   *
+   * @param bits the bit sequence.
+   * @param value the value to set.
+   */
+  public void set(String bits, V value) {
+    setAt(BitTree.parseBits(bits, this.bitLength), value);
+  } // set(String, V)
+
+  /**
+   * Sets the value for the bit sequence given by the low bitLength bits
+   * of a key. The key is treated as unsigned.
+   *
+   * @param key the key.
+   * @param value the value to set.
+   */
+  public void set(int key, V value) {
+    set(Integer.toUnsignedLong(key), value);
+  } // set(int, V)
+
+  /**
+   * Sets the value for the bit sequence given by the low bitLength bits
+   * of a key. The key is treated as unsigned.
+   *
+   * @param key the key.
+   * @param value the value to set.
+   * @throws IndexOutOfBoundsException if the key has more than bitLength bits.
+   */
+  public void set(long key, V value) {
+    BitTree.checkKey(key, this.bitLength);
+    setAt(key, value);
+  } // set(long, V)
+
+  /**
+   * Gets the value for a specific bit sequence.
+   *
+   * @param bits the bit sequence.
+   * @return the corresponding value.
+   */
+  public V get(String bits) {
+    return getAt(BitTree.parseBits(bits, this.bitLength));
+  } // get(String)
+
+  /**
+   * Gets the value for the bit sequence given by the low bitLength bits
+   * of a key. The key is treated as unsigned.
+   *
+   * @param key the key.
+   * @return the corresponding value.
+   */
+  public V get(int key) {
+    return get(Integer.toUnsignedLong(key));
+  } // get(int)
+
+  /**
+   * Gets the value for the bit sequence given by the low bitLength bits
+   * of a key. The key is treated as unsigned.
+   *
+   * @param key the key.
+   * @return the corresponding value.
+   * @throws IndexOutOfBoundsException if the key has more than bitLength
+   *   bits or names no value.
+   */
+  public V get(long key) {
+    BitTree.checkKey(key, this.bitLength);
+    return getAt(key);
+  } // get(long)
+
+  /**
+   * Gets the number of keys with values.
+   *
+   * @return the number of keys.
+   */
+  public int size() {
+    return this.size;
+  } // size()
+
+  /**
+   * Dumps the tree contents in CSV format.
+   *
+   * @param pen the writer to output to.
+   */
+  public void dump(PrintWriter pen) {
+    dumpHelper(this.root, new char[this.bitLength], 0, pen);
+  } // dump(PrintWriter)
+
+  /**
+   * Loads mappings from an input stream, storing each value as the
+   * String that follows the comma. Only suitable for a
+   * <code>PatriciaBitTree&lt;String&gt;</code>.
+   *
+   * @param source the input stream containing bit-value pairs.
+   * @throws RuntimeException if an error occurs while reading the stream.
+   */
+  @SuppressWarnings("unchecked")
+  public void load(InputStream source) {
+    load(source, (value) -> (V) value);
+  } // load(InputStream)
+
+  /**
+   * Loads mappings from an input stream, converting each value with a
+   * parser.
+   *
+   * @param source the input stream containing bit-value pairs.
+   * @param parser converts the text after the comma into a value.
+   * @throws RuntimeException if an error occurs while reading the stream.
+   */
+  public void load(InputStream source, Function<String, ? extends V> parser) {
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(source))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        String[] parts = line.split(",", 2);
+        if (parts.length == 2) {
+          set(parts[0], parser.apply(parts[1]));
+        } // if
+      } // while
+    } catch (IOException e) {
+      throw new RuntimeException("Error reading from input stream.", e);
+    } // try/catch
+  } // load(InputStream, Function)
+
+  // +---------------+-----------------------------------------------
+  // | Inner classes |
+  // +---------------+
+
+  /**
+   * A node, standing for a run of bits. Nodes whose span reaches the full
+   * bit length are leaves; the others have two children, whose spans
+   * begin with a 0 (left) or a 1 (right).
+   */
+  private static class Node {
+    /**
+     * The bits of the span, right-aligned.
+     */
+    long bits;
+
+    /**
+     * The number of bits in the span.
+     */
+    int length;
+
+    /**
+     * The child whose span starts with 0.
+     */
+    Node left;
+
+    /**
+     * The child whose span starts with 1.
+     */
+    Node right;
+
+    /**
+     * The value, for leaves.
+     */
+    Object value;
+
+    /**
+     * Constructs a node with no children.
+     *
+     * @param bits the bits of the span.
+     * @param length the number of bits in the span.
+     */
+    Node(long bits, int length) {
+      this.bits = bits;
+      this.length = length;
+    } // Node(long, int)
+  } // class Node
+} // class PatriciaBitTree
@@ -0,0 +1,133 @@
+package edu.grinnell.csc207.main;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+
+/**
+ * Some simple tests of our BrailleASCII program.
+ *
+ * @author Nicole Moreno Gonzalez
+ */
+public class TestBrailleASCII {
+  // +---------------+-----------------------------------------------
+  // | Static fields |
+  // +---------------+
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Capture what streaming mode prints for some input.
+   *
+   * @param target the target character set.
+   * @param input the input.
+   * @return what was printed.
+   */
+  static String streamed(String target, String input) throws Exception {
+    StringWriter result = new StringWriter();
+    PrintWriter pen = new PrintWriter(result);
+    BrailleASCII.stream(target, new StringReader(input), pen);
+    return result.toString();
+  } // streamed(String, String)
+
+  // +-------+-------------------------------------------------------
+  // | Setup |
+  // +-------+
+
+  // +-------+-------------------------------------------------------
+  // | Tests |
+  // +-------+
+
+  /**
+   * Streaming carries a chunk across a read boundary, passes CRLF line
+   * ends through, and reports a partial chunk at the end.
+   */
+  @Test
+  void testStream() throws Exception {
+    // 8192 % 6 == 2, so the first read ends two bits into a chunk.
+    String input = "100000".repeat(1400) + "\r\n" + "110000".repeat(3) + "\r\n" + "1000001";
+    assertEquals("A".repeat(1400) + "\r\n" + "BBB" + "\r\n" + "A" + System.lineSeparator()
+        + "Invalid bits: '1' (length: 1)" + System.lineSeparator(), streamed("ascii", input));
+
+    assertEquals("100000110000\r\n\r\n110000", streamed("braille", "ab\r\n\r\nb"));
+  } // testStream()
+
+  /**
+   * A server refuses to replace a file that is not a socket.
+   */
+  @Test
+  void testServerKeepsFiles(@TempDir Path dir) throws Exception {
+    Path notes = dir.resolve("notes.txt");
+    Files.writeString(notes, "keep");
+    assertThrows(FileAlreadyExistsException.class,
+        () -> new BrailleServer(BrailleServer.address(notes.toString())));
+    assertEquals("keep", Files.readString(notes));
+  } // testServerKeepsFiles(Path)
+
+  /**
+   * A resident server answers several clients, over TCP and over a
+   * Unix-domain socket, and reports bad requests without hanging up.
+   */
+  @Test
+  void testServer(@TempDir Path dir) throws Exception {
+    for (String spec : new String[] {"0", dir.resolve("ba.sock").toString()}) {
+      try (BrailleServer server = new BrailleServer(BrailleServer.address(spec))) {
+        Thread acceptor = new Thread(() -> {
+          try {
+            server.serve();
+          } catch (IOException e) {
+            // Reported by the clients failing.
+          } // try/catch
+        });
+        acceptor.start();
+        try (BrailleClient first = new BrailleClient(server.localAddress());
+            BrailleClient second = new BrailleClient(server.localAddress())) {
+          assertEquals("110010100010111000111000101010", first.translate("braille", "hello"));
+          assertEquals("HELLO", second.translate("ascii", "110010100010111000111000101010"));
+          assertEquals("\u2813\u2811", first.translate("unicode", "he"));
+          assertEquals("Trouble translating character '\u00e9'",
+              assertThrows(IllegalArgumentException.class,
+                  () -> second.translate("braille", "\u00e9")).getMessage());
+          assertThrows(IllegalArgumentException.class, () -> first.translate("morse", "hi"));
+          assertEquals("", second.translate("braille", ""));
+          // An over-long request is refused, and the connection still works.
+          assertEquals("line too long", assertThrows(IllegalArgumentException.class,
+              () -> first.translate("braille", "a".repeat(BrailleServer.MAX_LINE))).getMessage());
+          assertEquals("100000", first.translate("braille", "a"));
+        } // try
+        server.close();
+        acceptor.join();
+      } // try
+    } // for
+    assertFalse(Files.exists(dir.resolve("ba.sock")));
+  } // testServer(Path)
+
+  /**
+   * The server protocol: a request without a space is a target alone,
+   * and every bad chunk goes on one ERROR line.
+   */
+  @Test
+  void testRespond() {
+    assertEquals("OK ", BrailleServer.respond("braille"));
+    assertEquals("ERROR Unsupported target: morse", BrailleServer.respond("MORSE"));
+    assertEquals("ERROR Trouble translating character '\u00e9'; "
+        + "Trouble translating character '\u00fc'",
+        BrailleServer.respond("braille a\u00e9b\u00fc"));
+    assertEquals("ERROR Invalid bits: '11' (length: 2)",
+        BrailleServer.respond("ascii 10000011"));
+  } // testRespond()
+} // class TestBrailleASCII
@@ -2,9 +2,18 @@ package edu.grinnell.csc207.util;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 
 /**
@@ -29,4 +38,159 @@ public class TestBAT {
   // | Tests |
   // +-------+
 
+  /**
+   * The bulk translations agree with the one-at-a-time ones.
+   */
+  @Test
+  void testBulkMatchesSingle() throws Exception {
+    String text = "Hello World";
+    StringBuilder expected = new StringBuilder();
+    for (char c : text.toCharArray()) {
+      expected.append(BrailleAsciiTables.toBraille(c));
+    } // for
+    StringBuilder bits = new StringBuilder();
+    BrailleAsciiTables.translateToBraille(text, bits);
+    assertEquals(expected.toString(), bits.toString());
+
+    StringBuilder ascii = new StringBuilder();
+    BrailleAsciiTables.translateToAscii(bits, ascii);
+    assertEquals("HELLO WORLD", ascii.toString());
+
+    StringBuilder unicode = new StringBuilder();
+    BrailleAsciiTables.translateToUnicode(bits, unicode);
+    assertEquals(BrailleAsciiTables.toUnicode("110010"), unicode.substring(0, 1));
+  } // testBulkMatchesSingle()
+
+  /**
+   * The buffer translations leave partial chunks behind.
+   */
+  @Test
+  void testBuffersKeepPartialChunks() {
+    CharBuffer in = CharBuffer.wrap("110010100010111");
+    CharBuffer out = CharBuffer.allocate(10);
+    BrailleAsciiTables.translateToAscii(in, out);
+    assertEquals("111", in.toString());
+    assertEquals("HE", out.flip().toString());
+
+    ByteBuffer bytesIn = ByteBuffer.wrap("100000".getBytes(StandardCharsets.US_ASCII));
+    ByteBuffer bytesOut = ByteBuffer.allocate(3);
+    BrailleAsciiTables.translateToUnicode(bytesIn, bytesOut);
+    assertArrayEquals("\u2801".getBytes(StandardCharsets.UTF_8), bytesOut.array());
+
+    // A bad chunk leaves the input at its start, so the caller can resync.
+    ByteBuffer badIn = ByteBuffer.wrap("10000010x000".getBytes(StandardCharsets.US_ASCII));
+    ByteBuffer badOut = ByteBuffer.allocate(2);
+    assertThrows(IllegalArgumentException.class,
+        () -> BrailleAsciiTables.translateToAscii(badIn, badOut));
+    assertEquals(6, badIn.position());
+    assertEquals(1, badOut.position());
+
+    // The strict CharSequence translations check the length up front.
+    StringBuilder partial = new StringBuilder();
+    assertThrows(IllegalArgumentException.class,
+        () -> BrailleAsciiTables.translateToAscii("1000001", partial));
+    assertThrows(IllegalArgumentException.class,
+        () -> BrailleAsciiTables.translateToUnicode("1000001", partial));
+    assertEquals("", partial.toString());
+  } // testBuffersKeepPartialChunks()
+
+  /**
+   * Mapped file translation round-trips through Braille.
+   */
+  @Test
+  void testMappedFiles(@TempDir Path dir) throws Exception {
+    Path text = dir.resolve("text.txt");
+    Path bits = dir.resolve("bits.txt");
+    Path back = dir.resolve("back.txt");
+    Files.writeString(text, "HELLO\nWORLD\n");
+    assertEquals(62, MappedTranslator.toBraille(text, bits));
+    assertEquals(12, MappedTranslator.toAscii(bits, back));
+    assertEquals("HELLO\nWORLD\n", Files.readString(back));
+    Files.writeString(bits, "1000001\n");
+    assertThrows(IllegalArgumentException.class, () -> MappedTranslator.toAscii(bits, back));
+    assertFalse(Files.exists(back));
+  } // testMappedFiles(Path)
+
+  /**
+   * Parallel translation gives the same results as sequential.
+   */
+  @Test
+  void testParallel() throws Exception {
+    String text = "THE QUICK BROWN FOX JUMPS OVER THE LAZY DOG ".repeat(50);
+    StringBuilder bits = new StringBuilder();
+    BrailleAsciiTables.translateToBraille(text, bits);
+    StringBuilder unicode = new StringBuilder();
+    BrailleAsciiTables.translateToUnicode(bits, unicode);
+    try (ParallelTranslator translator = new ParallelTranslator(4, 7)) {
+      assertEquals(bits.toString(), translator.toBraille(text));
+      assertEquals(text, translator.toAscii(bits));
+      assertEquals(unicode.toString(), translator.toUnicode(bits));
+      assertThrows(IllegalArgumentException.class, () -> translator.toAscii("1000001"));
+      // Too long to translate, though never read: 400M * 6 overflows an int.
+      CharSequence huge = new CharSequence() {
+        public int length() {
+          return 400_000_000;
+        } // length()
+
+        public char charAt(int index) {
+          return 'a';
+        } // charAt(int)
+
+        public CharSequence subSequence(int start, int end) {
+          throw new UnsupportedOperationException();
+        } // subSequence(int, int)
+      };
+      assertThrows(IllegalArgumentException.class, () -> translator.toBraille(huge));
+    } // try
+    // The smallest cutoff splits right down to single chunks.
+    try (ParallelTranslator translator = new ParallelTranslator(2, 6)) {
+      assertEquals(text, translator.toAscii(bits));
+      assertEquals(unicode.toString(), translator.toUnicode(bits));
+    } // try
+  } // testParallel()
+
+  /**
+   * The listener variants skip and report bad chunks instead of throwing.
+   *
+   * @throws Exception
+   *   If appending fails, which it should not.
+   */
+  @Test
+  void testInvalidChunksReported() throws Exception {
+    StringBuilder out = new StringBuilder();
+    StringBuilder bad = new StringBuilder();
+    BrailleAsciiTables.translateToAscii("1x0000011111100000" + "1010", out,
+        (chunk, index) -> bad.append(index).append(':').append(chunk).append(' '));
+    assertEquals("A", out.toString());
+    assertEquals("0:1x0000 6:011111 18:1010 ", bad.toString());
+
+    out.setLength(0);
+    bad.setLength(0);
+    BrailleAsciiTables.translateToBraille("a\u00e9", out,
+        (chunk, index) -> bad.append(index).append(':').append(chunk));
+    assertEquals("100000", out.toString());
+    assertEquals("1:\u00e9", bad.toString());
+
+    CharBuffer in = CharBuffer.wrap("2000001000001");
+    CharBuffer chars = CharBuffer.allocate(4);
+    bad.setLength(0);
+    BrailleAsciiTables.translateToUnicode(in, chars, (chunk, index) -> bad.append(chunk));
+    assertEquals("\u2801", chars.flip().toString());
+    assertEquals("200000", bad.toString());
+    assertEquals("1", in.toString());
+  } // testInvalidChunksReported()
+
+  /**
+   * The tables precomputed by the build match the CSVs they came from.
+   */
+  @Test
+  void testPrecomputedTables() {
+    assertNotNull(BrailleAsciiTables.class.getResource(BrailleAsciiTables.TABLES_RESOURCE));
+    IntBitTree[] parsed = BrailleAsciiTables.parseTables();
+    IntBitTree[] loaded = BrailleAsciiTables.loadTables();
+    for (int i = 0; i < parsed.length; i++) {
+      assertEquals(TestBitTree.dumped(parsed[i]::dump), TestBitTree.dumped(loaded[i]::dump));
+    } // for
+  } // testPrecomputedTables()
+
 } // class TestBAT
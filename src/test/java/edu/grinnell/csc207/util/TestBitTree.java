@@ -2,9 +2,30 @@ package edu.grinnell.csc207.util;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 
 /**
@@ -21,6 +42,22 @@ public class TestBitTree {
   // | Helpers |
   // +---------+
 
+  /**
+   * Capture what a dump method prints.
+   *
+   * @param dumper
+   *   Prints to the writer it is given.
+   *
+   * @return the printed text.
+   */
+  static String dumped(Consumer<PrintWriter> dumper) {
+    StringWriter out = new StringWriter();
+    PrintWriter pen = new PrintWriter(out);
+    dumper.accept(pen);
+    pen.flush();
+    return out.toString();
+  } // dumped(Consumer<PrintWriter>)
+
   // +-------+-------------------------------------------------------
   // | Setup |
   // +-------+
@@ -29,4 +66,587 @@ public class TestBitTree {
   // | Tests |
   // +-------+
 
+  /**
+   * Numeric keys and bit strings name the same paths.
+   */
+  @Test
+  void testIntKeysMatchBits() {
+    BitTree<String> tree = new BitTree<>(6);
+    tree.set("101001", "U");
+    tree.set(0b110000, "B");
+    assertEquals("U", tree.get(0b101001));
+    assertEquals("B", tree.get("110000"));
+    tree.set(41, "u");
+    assertEquals("u", tree.get("101001"));
+  } // testIntKeysMatchBits()
+
+  /**
+   * Bad keys are rejected the same way through both APIs.
+   */
+  @Test
+  void testBadKeys() {
+    BitTree<String> tree = new BitTree<>(4);
+    tree.set("0101", "five");
+    assertThrows(IndexOutOfBoundsException.class, () -> tree.get("0100"));
+    assertThrows(IndexOutOfBoundsException.class, () -> tree.get(0b0100));
+    assertThrows(IndexOutOfBoundsException.class, () -> tree.get(0b10101));
+    assertThrows(IndexOutOfBoundsException.class, () -> tree.get(-1));
+    assertThrows(IndexOutOfBoundsException.class, () -> tree.get("101"));
+    assertThrows(IllegalArgumentException.class, () -> tree.set("01a1", "bad"));
+  } // testBadKeys()
+
+  /**
+   * A frozen tree answers lookups exactly as the original did.
+   */
+  @Test
+  void testFreeze() {
+    BitTree<String> tree = new BitTree<>(5);
+    tree.set("00000", "Zero");
+    tree.set("10000", "Sixteen");
+    tree.set("01111", null);
+    DenseBitTree<String> frozen = tree.freeze();
+    assertEquals(dumped(tree::dump), dumped(frozen::dump));
+    tree.set("11111", "Later");
+    assertEquals("Zero", frozen.get("00000"));
+    assertEquals("Sixteen", frozen.get(16));
+    assertEquals(null, frozen.get("01111"));
+    assertThrows(IndexOutOfBoundsException.class, () -> frozen.get("11111"));
+    assertThrows(IndexOutOfBoundsException.class, () -> frozen.get(32));
+    assertThrows(IndexOutOfBoundsException.class, () -> frozen.get("0000"));
+    assertThrows(IllegalArgumentException.class, () -> frozen.get("0000x"));
+  } // testFreeze()
+
+  /**
+   * Values may be parsed as they are loaded.
+   */
+  @Test
+  void testLoadWithParser() {
+    BitTree<Integer> tree = new BitTree<>(3);
+    tree.load(new ByteArrayInputStream("101,2805\n011,ff\n".getBytes()),
+        (hex) -> Integer.valueOf(hex, 16));
+    assertEquals(0x2805, tree.get("101"));
+    assertEquals(255, tree.get(0b011));
+  } // testLoadWithParser()
+
+  /**
+   * The bulk loader handles sorted and unsorted input, CRLF line ends,
+   * lines longer than its buffer, and reports malformed lines.
+   */
+  @Test
+  void testBulkLoad() {
+    StringBuilder csv = new StringBuilder();
+    for (int i = 1; i < 4095; i++) {
+      int key = (i < 2048) ? i : 2048 + (i * 5) % 2047;
+      csv.append(String.format("%12s", Integer.toBinaryString(key)).replace(' ', '0'));
+      csv.append(',').append(key).append("\r\n");
+    } // for
+    csv.append("000000000000,").append("x".repeat(100_000)).append('\n');
+    csv.append("no comma\n\n0101,short\n00000000000a,bad\n111111111111,last");
+    BitTree<String> tree = new BitTree<>(12, 4);
+    StringBuilder reports = new StringBuilder();
+    tree.load(new ByteArrayInputStream(csv.toString().getBytes()), (value) -> value,
+        (line, number) -> reports.append(number).append(':').append(line).append('\n'));
+    for (int key = 1; key < 4095; key++) {
+      assertEquals(Integer.toString(key), tree.get(key));
+    } // for
+    assertEquals(100_000, tree.get(0).length());
+    assertEquals("last", tree.get(4095));
+    assertEquals("4096:no comma\n4098:0101,short\n4099:00000000000a,bad\n",
+        reports.toString());
+    assertThrows(IllegalArgumentException.class,
+        () -> tree.load(new ByteArrayInputStream("00000000000a,bad".getBytes())));
+  } // testBulkLoad()
+
+  /**
+   * Binary snapshots round-trip trees of any stride and bit length.
+   */
+  @Test
+  void testSnapshots() {
+    BitTree<Integer> tree = new BitTree<>(12, 4);
+    for (int i = 0; i < 500; i++) {
+      tree.set((i * 37) % 4096, -i);
+    } // for
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    tree.writeTo(out);
+    BitTree<Integer> copy = BitTree.readFrom(new ByteArrayInputStream(out.toByteArray()),
+        Integer::valueOf);
+    assertEquals(dumped(tree::dump), dumped(copy::dump));
+    assertEquals(-499, copy.get((499 * 37) % 4096));
+
+    BitTree<String> wide = new BitTree<>(70);
+    String key = "1" + "0".repeat(68) + "1";
+    wide.set(key, "both ends");
+    wide.set("0".repeat(70), "");
+    out.reset();
+    wide.writeTo(Channels.newChannel(out), (value) -> value);
+    BitTree<String> wideCopy = BitTree.readFrom(new ByteArrayInputStream(out.toByteArray()));
+    assertEquals("both ends", wideCopy.get(key));
+    assertEquals(dumped(wide::dump), dumped(wideCopy::dump));
+
+    // Null values survive, and are not confused with the string "null".
+    BitTree<String> nulls = new BitTree<>(4);
+    nulls.set("0001", null);
+    nulls.set("0010", "null");
+    nulls.set("0100", "dropped");
+    out.reset();
+    nulls.writeTo(out, (value) -> value.equals("dropped") ? null : value);
+    BitTree<String> nullsCopy = BitTree.readFrom(new ByteArrayInputStream(out.toByteArray()));
+    assertNull(nullsCopy.get("0001"));
+    assertEquals("null", nullsCopy.get("0010"));
+    assertNull(nullsCopy.get("0100"));
+    assertEquals(3, nullsCopy.size());
+
+    assertThrows(IllegalArgumentException.class,
+        () -> BitTree.readFrom(new ByteArrayInputStream("0000000,a\n".getBytes())));
+  } // testSnapshots()
+
+  /**
+   * A mapped snapshot answers lookups just as the tree that wrote it.
+   *
+   * @param dir
+   *   A temporary directory for the snapshot.
+   *
+   * @throws Exception
+   *   If the snapshot cannot be written or mapped.
+   */
+  @Test
+  void testMappedBitTree(@TempDir Path dir) throws Exception {
+    BitTree<String> tree = new BitTree<>(10, 2);
+    for (int i = 0; i < 1024; i += 3) {
+      tree.set(i, "v" + i);
+    } // for
+    Path file = dir.resolve("tree.bin");
+    try (OutputStream out = Files.newOutputStream(file)) {
+      tree.writeTo(out);
+    } // try
+    MappedBitTree mapped = MappedBitTree.open(file);
+    for (int i = 0; i < 1024; i += 3) {
+      assertEquals("v" + i, mapped.get(i));
+    } // for
+    assertEquals(342, mapped.size());
+    assertEquals("v3", mapped.get("0000000011"));
+    BitSet key = new BitSet();
+    key.set(0, 10);
+    assertEquals("v1023", mapped.get(key));
+    assertThrows(IndexOutOfBoundsException.class, () -> mapped.get(1));
+    assertThrows(IndexOutOfBoundsException.class, () -> mapped.get(1024));
+    assertThrows(IndexOutOfBoundsException.class, () -> mapped.get("000"));
+    assertThrows(IllegalArgumentException.class, () -> mapped.get("000000001x"));
+  } // testMappedBitTree()
+
+  /**
+   * Off-heap trees store and replace values, and refuse use once closed.
+   */
+  @Test
+  void testOffHeapBitTree() {
+    OffHeapBitTree tree = new OffHeapBitTree(40);
+    Random random = new Random(207);
+    long[] keys = new long[2000];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = random.nextLong() >>> 24;
+      tree.set(keys[i], "value " + i);
+    } // for
+    for (int i = 0; i < keys.length; i++) {
+      assertEquals("value " + i, tree.get(keys[i]));
+    } // for
+    assertEquals(keys.length, tree.size());
+    tree.set(keys[0], "");
+    tree.set(keys[1], "x".repeat(OffHeapBitTree.SLAB_BYTES - 1));
+    assertEquals("", tree.get(keys[0]));
+    assertEquals(OffHeapBitTree.SLAB_BYTES - 1, tree.get(keys[1]).length());
+    assertEquals(keys.length, tree.size());
+    assertThrows(IndexOutOfBoundsException.class, () -> tree.get(1L << 40));
+
+    // An empty value at a slab boundary takes no new slab.
+    OffHeapBitTree full = new OffHeapBitTree(2);
+    full.set(0, "x".repeat(OffHeapBitTree.SLAB_BYTES));
+    full.set(1, "");
+    assertEquals(1, full.poolSlabs());
+    assertEquals("", full.get(1));
+    full.set(2, "y");
+    assertEquals("y", full.get(2));
+    assertEquals(2, full.poolSlabs());
+    // Null is a value, as in BitTree, and not the string "null".
+    full.set(3, null);
+    assertNull(full.get(3));
+    full.set(2, null);
+    assertNull(full.get(2));
+    full.set(2, "null");
+    assertEquals("null", full.get(2));
+    assertEquals(4, full.size());
+    full.close();
+
+    OffHeapBitTree small = new OffHeapBitTree(3);
+    small.set("110", "six");
+    small.set("001", "one");
+    assertEquals("001,one\n110,six\n", dumped(small::dump));
+    small.close();
+    assertThrows(IllegalStateException.class, () -> small.get(6));
+    tree.close();
+  } // testOffHeapBitTree()
+
+  /**
+   * Statistics track the shape of the tree as it grows.
+   */
+  @Test
+  void testStats() {
+    BitTree<String> tree = new BitTree<>(3);
+    assertEquals(0, tree.size());
+    tree.set("000", "a");
+    tree.set("001", "b");
+    tree.set("100", "c");
+    BitTreeStats stats = tree.stats();
+    assertEquals(3, stats.getLeafCount());
+    assertEquals(5, stats.getInteriorNodeCount());
+    assertEquals(3, stats.getNullChildCount());
+    assertEquals(4, stats.getLevels());
+    assertEquals(2, stats.getNodeCount(1));
+    assertEquals(0.75, stats.getOccupancy(3));
+    assertEquals(5 * 24 + 3 * 16, stats.getEstimatedBytes());
+
+    BitTree<String> wide = new BitTree<>(6, 4);
+    wide.set(0b101010, "x");
+    stats = wide.stats();
+    assertEquals(1, wide.size());
+    assertEquals(2, stats.getInteriorNodeCount());
+    assertEquals(15 + 3, stats.getNullChildCount());
+    assertEquals(1.0 / 16, stats.getOccupancy(1));
+  } // testStats()
+
+  /**
+   * Removing values prunes empty nodes, and compacting drops null values.
+   */
+  @Test
+  void testRemoveAndCompact() {
+    BitTree<String> tree = new BitTree<>(8, 2);
+    for (int i = 0; i < 256; i++) {
+      tree.set(i, "v" + i);
+    } // for
+    for (int i = 0; i < 256; i++) {
+      if (i != 0b10110001) {
+        assertEquals("v" + i, tree.remove(i));
+      } // if
+    } // for
+    assertEquals(null, tree.remove(0));
+    assertThrows(IndexOutOfBoundsException.class, () -> tree.get(0));
+    assertEquals("10110001,v177\n", dumped(tree::dump));
+    assertEquals(4, tree.stats().getInteriorNodeCount());
+    assertEquals(1, tree.size());
+
+    tree.set("00000000", null);
+    tree.set("11111111", "last");
+    tree.compact();
+    assertEquals("10110001,v177\n11111111,last\n", dumped(tree::dump));
+    assertEquals(2, tree.size());
+    assertEquals(7, tree.stats().getInteriorNodeCount());
+    assertEquals("v177", tree.remove("10110001"));
+    assertEquals(1, tree.size());
+  } // testRemoveAndCompact()
+
+  /**
+   * Cursors, prefix scans and entry streams visit entries in key order.
+   */
+  @Test
+  void testIteration() {
+    BitTree<Integer> tree = new BitTree<>(10, 4);
+    for (int i = 0; i < 1024; i += 7) {
+      tree.set(i, i);
+    } // for
+    BitTreeCursor<Integer> cursor = tree.cursor();
+    int expected = 0;
+    while (cursor.advance()) {
+      assertEquals(expected, cursor.keyBits());
+      assertEquals(expected, cursor.value());
+      expected += 7;
+    } // while
+    assertEquals(1029, expected);
+
+    cursor = tree.scanPrefix("10101");
+    StringBuilder keys = new StringBuilder();
+    while (cursor.advance()) {
+      keys.append(cursor.key()).append(' ');
+    } // while
+    assertEquals("1010100000 1010100111 1010101110 1010110101 1010111100 ", keys.toString());
+    assertEquals(false, tree.scanPrefix("1111111111").advance());
+    cursor = tree.scanPrefix("1111110111");
+    assertEquals(true, cursor.advance());
+    assertEquals(1015, cursor.value());
+    assertEquals(false, cursor.advance());
+    assertThrows(IndexOutOfBoundsException.class, () -> tree.scanPrefix("00000000000"));
+
+    assertEquals(tree.size(), tree.entries().count());
+    assertEquals(tree.entries().mapToInt(Map.Entry::getValue).sum(),
+        tree.entries().parallel().mapToInt(Map.Entry::getValue).sum());
+    assertEquals(tree.entries().map(Map.Entry::getKey).toList(),
+        tree.entries().parallel().map(Map.Entry::getKey).toList());
+  } // testIteration()
+
+  /**
+   * Batch lookups agree with single ones, including partial groups.
+   */
+  @Test
+  void testGetAll() {
+    BitTree<Integer> tree = new BitTree<>(20, 4);
+    int[] keys = new int[37];
+    String[] bits = new String[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = (i * 0x9E37) & 0xFFFFF;
+      bits[i] = String.format("%20s", Integer.toBinaryString(keys[i])).replace(' ', '0');
+      tree.set(keys[i], i);
+    } // for
+    Integer[] out = new Integer[keys.length];
+    tree.getAll(keys, out);
+    for (int i = 0; i < keys.length; i++) {
+      assertEquals(tree.get(keys[i]), out[i]);
+    } // for
+    Integer[] fromStrings = new Integer[keys.length];
+    tree.getAll(bits, fromStrings);
+    assertArrayEquals(out, fromStrings);
+    assertThrows(IndexOutOfBoundsException.class,
+        () -> tree.getAll(new int[] {keys[0], 1}, new Integer[2]));
+    assertThrows(IllegalArgumentException.class, () -> tree.getAll(keys, new Integer[1]));
+
+    BitTree<String> wide = new BitTree<>(70);
+    wide.set("0".repeat(65) + "00101", "five");
+    String[] wideOut = new String[1];
+    wide.getAll(new int[] {5}, wideOut);
+    assertEquals("five", wideOut[0]);
+    assertThrows(IndexOutOfBoundsException.class, () -> wide.getAll(new int[] {6}, wideOut));
+  } // testGetAll()
+
+  /**
+   * getOrDefault returns the default for missing and invalid keys.
+   */
+  @Test
+  void testGetOrDefault() {
+    BitTree<String> tree = new BitTree<>(4, 2);
+    tree.set("1010", "ten");
+    assertEquals("ten", tree.getOrDefault("1010", "none"));
+    assertEquals("ten", tree.getOrDefault(10, "none"));
+    assertEquals("none", tree.getOrDefault("1011", "none"));
+    assertEquals("none", tree.getOrDefault("10", "none"));
+    assertEquals("none", tree.getOrDefault("10a0", "none"));
+    assertEquals("none", tree.getOrDefault(16, "none"));
+    assertEquals("none", tree.getOrDefault(-1L, "none"));
+    IntBitTree ints = new IntBitTree(4);
+    ints.set(3, 33);
+    assertEquals(33, ints.getOrDefault(3, -1));
+    assertEquals(-1, ints.getOrDefault(4, -1));
+    assertEquals(-1, ints.getOrDefault(16, -1));
+  } // testGetOrDefault()
+
+  /**
+   * IntBitTrees hold int values for any key width up to 32 bits.
+   */
+  @Test
+  void testIntBitTree() {
+    IntBitTree tree = new IntBitTree(32);
+    for (int i = 0; i < 1000; i++) {
+      tree.set(i * 0x9E3779B9, i);
+    } // for
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(i, tree.get(i * 0x9E3779B9));
+    } // for
+    assertEquals(1000, tree.size());
+    IntBitTree small = new IntBitTree(3);
+    small.set("110", -6);
+    assertEquals(-6, small.get(6));
+    assertEquals(false, small.contains(7));
+    assertThrows(IndexOutOfBoundsException.class, () -> small.get(7));
+    assertThrows(IndexOutOfBoundsException.class, () -> small.set(8, 0));
+    assertEquals("110,-6\n", dumped(small::dump));
+    small.set(1, 9);
+    int[] table = small.toTable(0);
+    assertArrayEquals(new int[] {0, 9, 0, 0, 0, 0, -6, 0}, table);
+    small.set(1, 10);
+    assertEquals(9, table[1]);
+    assertThrows(IllegalStateException.class, () -> tree.toTable(0));
+  } // testIntBitTree()
+
+  /**
+   * Reading an IntBitTree rejects links that lead nowhere, rather than
+   * leaving a tree that fails later.
+   *
+   * @throws Exception
+   *   If the tree cannot be written.
+   */
+  @Test
+  void testIntBitTreeReadChecksLinks() throws Exception {
+    IntBitTree tree = new IntBitTree(3);
+    tree.set("110", 6);
+    tree.set("001", 1);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    tree.write(new DataOutputStream(bytes));
+    byte[] good = bytes.toByteArray();
+    IntBitTree copy = IntBitTree.read(new DataInputStream(new ByteArrayInputStream(good)));
+    assertEquals(dumped(tree::dump), dumped(copy::dump));
+
+    // Header: bitLength, nodeCount, leafCount; then two links per node.
+    // Node 0 links to nodes 3 and 1; node 2's left link is leaf 1.
+    int links = 3 * Integer.BYTES;
+    int[][] corruptions = {
+      {0, 40},                                // bit length too long
+      {links, 99},                            // no such node
+      {links + Integer.BYTES, -2},            // negative link
+      {links, 1},                             // node 1 reached twice
+      {links + 4 * Integer.BYTES, 5},         // no such leaf
+    };
+    for (int[] corruption : corruptions) {
+      byte[] bad = good.clone();
+      ByteBuffer.wrap(bad).putInt(corruption[0], corruption[1]);
+      assertThrows(IOException.class,
+          () -> IntBitTree.read(new DataInputStream(new ByteArrayInputStream(bad))));
+    } // for
+  } // testIntBitTreeReadChecksLinks()
+
+  /**
+   * Trees with wider strides behave just like binary ones, including
+   * when the stride does not divide the bit length.
+   */
+  @Test
+  void testStrides() {
+    Random random = new Random(207);
+    BitTree<String> binary = new BitTree<>(11);
+    BitTree<String> quad = new BitTree<>(11, 2);
+    BitTree<String> wide = new BitTree<>(11, 8);
+    for (int i = 0; i < 300; i++) {
+      int key = random.nextInt(1 << 11);
+      binary.set(key, "v" + i);
+      quad.set(key, "v" + i);
+      wide.set(Integer.toBinaryString(key | (1 << 11)).substring(1), "v" + i);
+    } // for
+    assertEquals(dumped(binary::dump), dumped(quad::dump));
+    assertEquals(dumped(binary::dump), dumped(wide::dump));
+    assertEquals(dumped(binary.freeze()::dump), dumped(wide.freeze()::dump));
+    assertThrows(IllegalArgumentException.class, () -> new BitTree<String>(8, 3));
+
+    BitTree<String> deep = new BitTree<>(70, 4);
+    deep.set("01".repeat(35), "deep");
+    assertEquals("deep", deep.get("01".repeat(35)));
+    assertThrows(IndexOutOfBoundsException.class, () -> deep.get("10".repeat(35)));
+  } // testStrides()
+
+  /**
+   * Keys may be much longer than a long.
+   */
+  @Test
+  void testWideKeys() {
+    BitTree<String> tree = new BitTree<>(130);
+    String high = "1" + "0".repeat(129);
+    String mixed = "01".repeat(65);
+    tree.set(high, "high");
+    tree.set(mixed, "mixed");
+    BitSet key = new BitSet();
+    key.set(129);
+    assertEquals("high", tree.get(key));
+    key.clear();
+    for (int i = 0; i < 130; i += 2) {
+      key.set(i);
+    } // for
+    assertEquals("mixed", tree.get(key));
+    tree.set(key, "again");
+    assertEquals("again", tree.get(mixed));
+    key.set(130);
+    assertThrows(IndexOutOfBoundsException.class, () -> tree.get(key));
+    assertThrows(IllegalStateException.class, () -> tree.get(5L));
+    assertEquals(mixed + ",again\n" + high + ",high\n", dumped(tree::dump));
+  } // testWideKeys()
+
+  /**
+   * Path-compressed trees agree with plain ones.
+   */
+  @Test
+  void testPatricia() {
+    PatriciaBitTree<String> sparse = new PatriciaBitTree<>(64);
+    Random random = new Random(207);
+    long[] keys = new long[500];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = random.nextLong();
+      sparse.set(keys[i], "v" + i);
+    } // for
+    sparse.set(-1L, "ones");
+    sparse.set(0L, "zeros");
+    for (int i = 0; i < keys.length; i++) {
+      assertEquals("v" + i, sparse.get(keys[i]));
+    } // for
+    assertEquals("ones", sparse.get(-1L));
+    assertEquals("zeros", sparse.get(0L));
+    assertThrows(IndexOutOfBoundsException.class, () -> sparse.get(1L));
+
+    BitTree<String> plain = new BitTree<>(7);
+    PatriciaBitTree<String> packed = new PatriciaBitTree<>(7);
+    for (int i = 0; i < 40; i++) {
+      int key = random.nextInt(128);
+      plain.set(key, "v" + i);
+      packed.set(key, "v" + i);
+    } // for
+    assertEquals(dumped(plain::dump), dumped(packed::dump));
+  } // testPatricia()
+
+  /**
+   * Writers on many threads all see their values land.
+   */
+  @Test
+  void testConcurrentSets() throws Exception {
+    ConcurrentBitTree<String> tree = new ConcurrentBitTree<>(12);
+    Thread[] writers = new Thread[8];
+    for (int t = 0; t < writers.length; t++) {
+      int offset = t;
+      writers[t] = new Thread(() -> {
+        for (int key = offset; key < 4096; key += writers.length) {
+          tree.set(key, Integer.toString(key));
+        } // for
+      });
+      writers[t].start();
+    } // for
+    for (Thread writer : writers) {
+      writer.join();
+    } // for
+    for (int key = 0; key < 4096; key++) {
+      assertEquals(Integer.toString(key), tree.get(key));
+    } // for
+    assertThrows(IndexOutOfBoundsException.class, () -> tree.get(4096));
+  } // testConcurrentSets()
+
+  /**
+   * Readers racing a writer see either no value or the value written,
+   * never an empty leaf.
+   *
+   * @throws Exception
+   *   If a thread is interrupted.
+   */
+  @Test
+  void testConcurrentReads() throws Exception {
+    ConcurrentBitTree<String> tree = new ConcurrentBitTree<>(20);
+    AtomicInteger written = new AtomicInteger(-1);
+    AtomicReference<String> wrong = new AtomicReference<>();
+    Thread[] readers = new Thread[Math.max(2, Runtime.getRuntime().availableProcessors() - 1)];
+    for (int t = 0; t < readers.length; t++) {
+      readers[t] = new Thread(() -> {
+        int last;
+        // Hammer the key being written right now.
+        while ((last = written.get()) < (1 << 20) - 1 && wrong.get() == null) {
+          int key = last + 1;
+          try {
+            String value = tree.get(key);
+            if (!Integer.toString(key).equals(value)) {
+              wrong.set(key + " -> " + value);
+            } // if
+          } catch (IndexOutOfBoundsException e) {
+            // Not set yet.
+          } // try/catch
+        } // while
+      });
+      readers[t].start();
+    } // for
+    for (int key = 0; key < 1 << 20; key++) {
+      tree.set(key, Integer.toString(key));
+      written.set(key);
+    } // for
+    for (Thread reader : readers) {
+      reader.join();
+    } // for
+    assertNull(wrong.get());
+  } // testConcurrentReads()
+
 } // class TestBitTree